@@ -0,0 +1,121 @@
+package com.okta.developer.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import javax.cache.Caching;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.jcache.JCacheCache;
+
+/**
+ * Compares the providers of {@code application.cache.cacheable-provider} for the {@code usersByLogin} and
+ * {@code usersByEmail} regions: Ehcache behind JCache with statistics enabled, and Caffeine recording its stats, both
+ * read through the Spring caches used by {@code @Cacheable} and sized by entry count like {@code CacheConfiguration}
+ * does. Run with {@code ./gradlew jmh}, the results are written to {@code build/results/jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@Threads(4)
+public class CacheProviderBenchmark {
+
+    private static final String CACHE_NAME = "benchmark";
+
+    @Param({ "ehcache", "caffeine" })
+    private String provider;
+
+    @Param({ "1000", "10000" })
+    private int maxEntries;
+
+    private javax.cache.CacheManager jCacheManager;
+
+    private Cache cache;
+
+    /**
+     * Twice as many keys as the cache holds, the first half is put in the cache by the setup.
+     */
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        keys = IntStream.range(0, maxEntries * 2).mapToObj(i -> "user-" + i).toArray(String[]::new);
+        Duration timeToLive = Duration.ofHours(1);
+        if ("ehcache".equals(provider)) {
+            jCacheManager = Caching.getCachingProvider(EhcacheCachingProvider.class.getName()).getCacheManager();
+            ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.newResourcePoolsBuilder().heap(maxEntries, EntryUnit.ENTRIES);
+            javax.cache.Cache<Object, Object> jCache = jCacheManager.createCache(
+                CACHE_NAME,
+                Eh107Configuration.fromEhcacheCacheConfiguration(
+                    CacheConfigurationBuilder
+                        .newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive))
+                        .build()
+                )
+            );
+            jCacheManager.enableStatistics(CACHE_NAME, true);
+            cache = new JCacheCache(jCache);
+        } else {
+            Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(timeToLive).recordStats();
+            cache = new CaffeineCache(CACHE_NAME, builder.build());
+        }
+        for (int i = 0; i < maxEntries; i++) {
+            cache.put(keys[i], keys[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (jCacheManager != null) {
+            jCacheManager.destroyCache(CACHE_NAME);
+            jCacheManager.close();
+        }
+    }
+
+    /**
+     * Reads the keys put by the setup, mostly hits.
+     */
+    @Benchmark
+    public Object get() {
+        Cache.ValueWrapper value = cache.get(keys[ThreadLocalRandom.current().nextInt(maxEntries)]);
+        return value != null ? value.get() : null;
+    }
+
+    /**
+     * Reads all the keys and puts the missing ones like {@code @Cacheable} does, half of the reads miss and evict.
+     */
+    @Benchmark
+    public Object getOrPut() {
+        String key = keys[ThreadLocalRandom.current().nextInt(keys.length)];
+        Cache.ValueWrapper value = cache.get(key);
+        if (value == null) {
+            cache.put(key, key);
+            return key;
+        }
+        return value.get();
+    }
+}
@@ -0,0 +1,326 @@
+package com.okta.developer.cache;
+
+import com.okta.developer.config.ApplicationProperties;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.MappingMetamodel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Evicts entries from the caches of this node and, when {@code application.cache.mode} is {@code invalidation}, from
+ * the caches of the other nodes. A cache is either a Spring cache, a Hibernate entity or collection region, or an
+ * in-process cache registered with {@link #register(String, Consumer)}, by name.
+ * <p>
+ * Local entries are evicted right away, for the reads in the writing transaction, and again once it has committed, for
+ * the reads that ran concurrently with it. The evictions of a transaction are coalesced and written to the
+ * {@code cache_invalidation} table in one batch just before it commits, so the other nodes only see them once it has
+ * committed. Every node reads the messages of the others each {@code application.cache.invalidation.poll-interval-ms},
+ * from the highest id it had read {@code application.cache.invalidation.lookback-seconds} earlier: the ids are assigned
+ * on insert, so a message can become visible after messages with higher ids. Keys and entity ids are sent as strings, so
+ * the caches evicted through the bus must have string keys.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final String INSERT_MESSAGE =
+        "insert into cache_invalidation (node_id, cache_name, cache_key, created_date) values (?, ?, ?, ?)";
+
+    private static final String SELECT_MESSAGES =
+        "select id, cache_name, cache_key from cache_invalidation where id > ? and node_id <> ? order by id";
+
+    private static final String SELECT_MAX_ID_BEFORE = "select coalesce(max(id), 0) from cache_invalidation where created_date < ?";
+
+    private static final String DELETE_MESSAGES = "delete from cache_invalidation where created_date < ?";
+
+    private static final String POSTGRESQL_TRY_LOCK_PURGE = "select pg_try_advisory_xact_lock(?)";
+
+    /**
+     * Key of the advisory lock taken by the purge, an arbitrary constant of this application.
+     */
+    private static final long PURGE_LOCK_KEY = 0x6361636865L;
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final CacheManager cacheManager;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Cache properties;
+
+    /**
+     * The highest id read by the recent polls, oldest first, dropped once they are older than the lookback.
+     */
+    private final Deque<Cursor> cursors = new ArrayDeque<>();
+
+    /**
+     * The messages with an id up to this one are not read again, {@code -1} until the first poll.
+     */
+    private long readUpTo = -1;
+
+    /**
+     * The ids above {@link #readUpTo} of the messages already applied.
+     */
+    private final Set<Long> applied = new HashSet<>();
+
+    private volatile Boolean postgresql;
+
+    private final Map<String, Consumer<Set<String>>> localCaches = new ConcurrentHashMap<>();
+
+    public CacheInvalidationBus(
+        CacheManager cacheManager,
+        EntityManagerFactory entityManagerFactory,
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getCache();
+    }
+
+    /**
+     * Registers an in-process cache that is neither a Spring cache nor a Hibernate region.
+     *
+     * @param cacheName the name the cache is evicted by.
+     * @param evictor evicts the keys from the cache, all of them if the keys contain {@code null}.
+     */
+    public void register(String cacheName, Consumer<Set<String>> evictor) {
+        localCaches.put(cacheName, evictor);
+    }
+
+    /**
+     * Evicts entries from a cache on every node.
+     *
+     * @param cacheName the name of the Spring cache or Hibernate region.
+     * @param keys the keys of the entries, or the ids of the entities or collection owners, {@code null} keys are ignored.
+     */
+    public void evict(String cacheName, Collection<String> keys) {
+        Set<String> nonNullKeys = new HashSet<>(keys);
+        nonNullKeys.remove(null);
+        if (!nonNullKeys.isEmpty()) {
+            send(cacheName, nonNullKeys);
+        }
+    }
+
+    /**
+     * Evicts all the entries of a cache on every node.
+     *
+     * @param cacheName the name of the Spring cache or Hibernate region.
+     */
+    public void evictAll(String cacheName) {
+        Set<String> allKeys = new HashSet<>();
+        // a null key clears the whole cache
+        allKeys.add(null);
+        send(cacheName, allKeys);
+    }
+
+    private void send(String cacheName, Set<String> keys) {
+        evictLocally(cacheName, keys);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(Map.of(cacheName, keys));
+            return;
+        }
+        Batch batch = TransactionSynchronizationManager
+            .getSynchronizations()
+            .stream()
+            .filter(Batch.class::isInstance)
+            .map(Batch.class::cast)
+            .findFirst()
+            .orElse(null);
+        if (batch == null) {
+            batch = new Batch();
+            TransactionSynchronizationManager.registerSynchronization(batch);
+        }
+        batch.keysByCache.computeIfAbsent(cacheName, name -> new HashSet<>()).addAll(keys);
+    }
+
+    /**
+     * Reads the messages of the other nodes and evicts their entries from the caches of this node.
+     */
+    @Scheduled(fixedDelayString = "${application.cache.invalidation.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        if (properties.getMode() != ApplicationProperties.Cache.Mode.INVALIDATION) {
+            return;
+        }
+        long readAt = System.nanoTime();
+        long lookbackNanos = Duration.ofSeconds(properties.getInvalidation().getLookbackSeconds()).toNanos();
+        while (!cursors.isEmpty() && readAt - cursors.peekFirst().readAt() > lookbackNanos) {
+            readUpTo = cursors.removeFirst().maxId();
+        }
+        applied.removeIf(id -> id <= readUpTo);
+        Map<String, Set<String>> keysByCache = new HashMap<>();
+        try {
+            if (readUpTo < 0) {
+                LocalDateTime since = now().minusSeconds(properties.getInvalidation().getLookbackSeconds());
+                readUpTo = jdbcTemplate.queryForObject(SELECT_MAX_ID_BEFORE, Long.class, since);
+            }
+            long[] maxId = { cursors.isEmpty() ? readUpTo : cursors.peekLast().maxId() };
+            jdbcTemplate.query(
+                SELECT_MESSAGES,
+                resultSet -> {
+                    long id = resultSet.getLong("id");
+                    maxId[0] = Math.max(maxId[0], id);
+                    if (applied.add(id)) {
+                        Set<String> keys = keysByCache.computeIfAbsent(resultSet.getString("cache_name"), name -> new HashSet<>());
+                        keys.add(resultSet.getString("cache_key"));
+                    }
+                },
+                readUpTo,
+                nodeId
+            );
+            cursors.addLast(new Cursor(readAt, maxId[0]));
+        } catch (DataAccessException e) {
+            log.warn("Could not read the cache invalidation messages: {}", e.getMessage());
+            return;
+        }
+        keysByCache.forEach(this::evictLocally);
+        if (!keysByCache.isEmpty()) {
+            log.debug("Applied the invalidation messages of caches {}", keysByCache.keySet());
+        }
+    }
+
+    /**
+     * Deletes the messages older than {@code application.cache.invalidation.retention-seconds}. Every node runs it at the
+     * same time, on PostgreSQL only the node that gets the advisory lock deletes them.
+     */
+    @Scheduled(cron = "0 */10 * * * ?")
+    public void purge() {
+        if (properties.getMode() != ApplicationProperties.Cache.Mode.INVALIDATION) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (isPostgresql() && !tryLockPurge()) {
+                log.debug("The cache invalidation messages are purged by another node");
+                return;
+            }
+            jdbcTemplate.update(DELETE_MESSAGES, now().minusSeconds(properties.getInvalidation().getRetentionSeconds()));
+        });
+    }
+
+    private boolean tryLockPurge() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(POSTGRESQL_TRY_LOCK_PURGE, Boolean.class, PURGE_LOCK_KEY));
+    }
+
+    private boolean isPostgresql() {
+        if (postgresql == null) {
+            String databaseProductName = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()
+            );
+            postgresql = "PostgreSQL".equals(databaseProductName);
+        }
+        return postgresql;
+    }
+
+    private void publish(Map<String, Set<String>> keysByCache) {
+        if (properties.getMode() != ApplicationProperties.Cache.Mode.INVALIDATION) {
+            return;
+        }
+        LocalDateTime createdDate = now();
+        List<Object[]> rows = new ArrayList<>();
+        keysByCache.forEach((cacheName, keys) -> keys.forEach(key -> rows.add(new Object[] { nodeId, cacheName, key, createdDate })));
+        // joins the current transaction, the messages are only visible to the other nodes once it has committed
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_MESSAGE, rows));
+    }
+
+    /**
+     * Evicts entries from the caches of this node, all of them if the keys contain {@code null}.
+     */
+    private void evictLocally(String cacheName, Set<String> keys) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        MappingMetamodel metamodel = sessionFactory.getRuntimeMetamodels().getMappingMetamodel();
+        org.hibernate.Cache regions = sessionFactory.getCache();
+        Consumer<Set<String>> localCache = localCaches.get(cacheName);
+        if (localCache != null) {
+            localCache.accept(keys);
+        } else if (metamodel.findEntityDescriptor(cacheName) != null) {
+            if (keys.contains(null)) {
+                regions.evictEntityData(cacheName);
+            } else {
+                keys.forEach(id -> regions.evictEntityData(cacheName, id));
+            }
+        } else if (metamodel.findCollectionDescriptor(cacheName) != null) {
+            if (keys.contains(null)) {
+                regions.evictCollectionData(cacheName);
+            } else {
+                keys.forEach(ownerId -> regions.evictCollectionData(cacheName, ownerId));
+            }
+        } else {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                log.warn("Ignoring the invalidation of unknown cache {}", cacheName);
+            } else if (keys.contains(null)) {
+                cache.clear();
+            } else {
+                removeAll(cache, keys);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeAll(Cache cache, Set<String> keys) {
+        if (cache.getNativeCache() instanceof javax.cache.Cache<?, ?> jcache) {
+            ((javax.cache.Cache<Object, ?>) jcache).removeAll(new HashSet<>(keys));
+        } else {
+            keys.forEach(cache::evict);
+        }
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+
+    private record Cursor(long readAt, long maxId) {}
+
+    /**
+     * The evictions of a transaction, published before it commits and applied locally again once it has committed.
+     */
+    private class Batch implements TransactionSynchronization {
+
+        private final Map<String, Set<String>> keysByCache = new HashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            publish(keysByCache);
+        }
+
+        @Override
+        public void afterCommit() {
+            keysByCache.forEach(CacheInvalidationBus.this::evictLocally);
+        }
+    }
+}
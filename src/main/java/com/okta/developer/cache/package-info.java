@@ -0,0 +1,4 @@
+/**
+ * Cache invalidation across the nodes of the application.
+ */
+package com.okta.developer.cache;
@@ -1,6 +1,12 @@
 package com.okta.developer.config;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
 
 /**
  * Properties specific to Health Points.
@@ -9,8 +15,363 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
+@Validated
 public class ApplicationProperties {
+
+    private final Scim scim = new Scim();
+
+    private final Points points = new Points();
+
+    private final HealthDataImport healthDataImport = new HealthDataImport();
+
+    @Valid
+    private final Cache cache = new Cache();
+
     // jhipster-needle-application-properties-property
+
+    public Scim getScim() {
+        return scim;
+    }
+
+    public Points getPoints() {
+        return points;
+    }
+
+    public HealthDataImport getHealthDataImport() {
+        return healthDataImport;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class Scim {
+
+        private final Bulk bulk = new Bulk();
+
+        public Bulk getBulk() {
+            return bulk;
+        }
+
+        public static class Bulk {
+
+            /**
+             * Number of bulk operations applied in a single transaction.
+             */
+            private int chunkSize = 500;
+
+            public int getChunkSize() {
+                return chunkSize;
+            }
+
+            public void setChunkSize(int chunkSize) {
+                this.chunkSize = chunkSize;
+            }
+        }
+    }
+
+    public static class Points {
+
+        private final Rollup rollup = new Rollup();
+
+        public Rollup getRollup() {
+            return rollup;
+        }
+
+        public static class Rollup {
+
+            /**
+             * When the recent weekly points totals are recomputed.
+             */
+            private String reconcileCron = "0 30 3 * * ?";
+
+            /**
+             * Number of weeks, including the current one, recomputed by the reconcile job.
+             */
+            private int reconcileWeeks = 8;
+
+            public String getReconcileCron() {
+                return reconcileCron;
+            }
+
+            public void setReconcileCron(String reconcileCron) {
+                this.reconcileCron = reconcileCron;
+            }
+
+            public int getReconcileWeeks() {
+                return reconcileWeeks;
+            }
+
+            public void setReconcileWeeks(int reconcileWeeks) {
+                this.reconcileWeeks = reconcileWeeks;
+            }
+        }
+    }
+
+    public static class HealthDataImport {
+
+        /**
+         * Number of imported rows written in a single transaction.
+         */
+        private int chunkSize = 1000;
+
+        /**
+         * Maximum number of row errors returned, the rejected rows are all counted.
+         */
+        private int maxErrors = 1000;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getMaxErrors() {
+            return maxErrors;
+        }
+
+        public void setMaxErrors(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * How the caches of the nodes are kept consistent with each other.
+         */
+        private Mode mode = Mode.LOCAL;
+
+        private final Invalidation invalidation = new Invalidation();
+
+        private final WarmUp warmUp = new WarmUp();
+
+        /**
+         * The provider of the regions filled by {@code @Cacheable} methods, the Hibernate regions always use Ehcache.
+         */
+        private Provider cacheableProvider = Provider.EHCACHE;
+
+        /**
+         * Settings of the cache regions by name, the settings not set use {@code jhipster.cache.ehcache}.
+         */
+        private final Map<String, @Valid Region> regions = new HashMap<>();
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public Invalidation getInvalidation() {
+            return invalidation;
+        }
+
+        public WarmUp getWarmUp() {
+            return warmUp;
+        }
+
+        public Provider getCacheableProvider() {
+            return cacheableProvider;
+        }
+
+        public void setCacheableProvider(Provider cacheableProvider) {
+            this.cacheableProvider = cacheableProvider;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public enum Mode {
+            /**
+             * Every node only evicts its own caches, the other nodes see the changes when their entries expire.
+             */
+            LOCAL,
+            /**
+             * The evictions are also sent to the other nodes, through the {@code cache_invalidation} table.
+             */
+            INVALIDATION,
+        }
+
+        public enum Provider {
+            /**
+             * Ehcache regions through JCache, like the Hibernate regions.
+             */
+            EHCACHE,
+            /**
+             * Caffeine caches, sized by entries only, that can reload their entries ahead of expiry.
+             */
+            CAFFEINE,
+        }
+
+        public static class Invalidation {
+
+            /**
+             * Time in milliseconds between two reads of the invalidation messages of the other nodes.
+             */
+            private long pollIntervalMs = 1000;
+
+            /**
+             * Time in seconds the messages are read again after a poll, it must be longer than the time between the
+             * insert of a message and the commit of its transaction since the messages are only visible once committed.
+             */
+            private long lookbackSeconds = 10;
+
+            /**
+             * Time in seconds the messages are kept before they are deleted.
+             */
+            private long retentionSeconds = 600;
+
+            public long getPollIntervalMs() {
+                return pollIntervalMs;
+            }
+
+            public void setPollIntervalMs(long pollIntervalMs) {
+                this.pollIntervalMs = pollIntervalMs;
+            }
+
+            public long getLookbackSeconds() {
+                return lookbackSeconds;
+            }
+
+            public void setLookbackSeconds(long lookbackSeconds) {
+                this.lookbackSeconds = lookbackSeconds;
+            }
+
+            public long getRetentionSeconds() {
+                return retentionSeconds;
+            }
+
+            public void setRetentionSeconds(long retentionSeconds) {
+                this.retentionSeconds = retentionSeconds;
+            }
+        }
+
+        public static class WarmUp {
+
+            private boolean enabled = true;
+
+            /**
+             * Number of most recently modified active users loaded with their authorities and preferences.
+             */
+            private int users = 1000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getUsers() {
+                return users;
+            }
+
+            public void setUsers(int users) {
+                this.users = users;
+            }
+        }
+
+        public static class Region {
+
+            /**
+             * Maximum number of entries kept on heap.
+             */
+            private Long maxEntries;
+
+            /**
+             * Maximum size of the entries kept on heap, replaces max-entries. Measuring the entries has a cost on every
+             * write.
+             */
+            private DataSize maxHeapSize;
+
+            /**
+             * Size of the off-heap tier behind the heap, the entries it holds are serialized outside of the garbage
+             * collected heap. Needs enough {@code -XX:MaxDirectMemorySize}.
+             */
+            private DataSize offHeapSize;
+
+            /**
+             * Time in seconds an entry stays in the region after it's written.
+             */
+            private Long timeToLiveSeconds;
+
+            /**
+             * Time in seconds an entry stays in the region after it's last read or written, replaces
+             * time-to-live-seconds.
+             */
+            private Long timeToIdleSeconds;
+
+            /**
+             * Time in seconds after a write at which an entry is reloaded in the background on its next read, the
+             * previous value being returned until the reload completes. Only supported by the Caffeine regions with a
+             * loader.
+             */
+            private Long refreshAfterWriteSeconds;
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public DataSize getMaxHeapSize() {
+                return maxHeapSize;
+            }
+
+            public void setMaxHeapSize(DataSize maxHeapSize) {
+                this.maxHeapSize = maxHeapSize;
+            }
+
+            public DataSize getOffHeapSize() {
+                return offHeapSize;
+            }
+
+            public void setOffHeapSize(DataSize offHeapSize) {
+                this.offHeapSize = offHeapSize;
+            }
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Long getTimeToIdleSeconds() {
+                return timeToIdleSeconds;
+            }
+
+            public void setTimeToIdleSeconds(Long timeToIdleSeconds) {
+                this.timeToIdleSeconds = timeToIdleSeconds;
+            }
+
+            public Long getRefreshAfterWriteSeconds() {
+                return refreshAfterWriteSeconds;
+            }
+
+            public void setRefreshAfterWriteSeconds(Long refreshAfterWriteSeconds) {
+                this.refreshAfterWriteSeconds = refreshAfterWriteSeconds;
+            }
+
+            /**
+             * Ehcache only accepts an off-heap tier larger than the heap tier it's behind.
+             */
+            @AssertTrue(message = "off-heap-size must be larger than max-heap-size")
+            boolean isOffHeapLargerThanHeap() {
+                return offHeapSize == null || maxHeapSize == null || offHeapSize.compareTo(maxHeapSize) > 0;
+            }
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -1,17 +1,36 @@
 package com.okta.developer.config;
 
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.okta.developer.domain.User;
+import com.okta.developer.repository.UserRepository;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.expiry.ExpiryPolicy;
 import org.ehcache.jsr107.Eh107Configuration;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.jcache.JCacheCacheManager;
+import org.springframework.cache.support.CompositeCacheManager;
 import org.springframework.context.annotation.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.config.cache.PrefixedKeyGenerator;
 
@@ -19,20 +38,23 @@ import tech.jhipster.config.cache.PrefixedKeyGenerator;
 @EnableCaching
 public class CacheConfiguration {
 
+    private static final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
+
+    /**
+     * The regions filled by {@code @Cacheable} methods, see {@code application.cache.cacheable-provider}.
+     */
+    private static final List<String> CACHEABLE_REGIONS = List.of(UserRepository.USERS_BY_LOGIN_CACHE, UserRepository.USERS_BY_EMAIL_CACHE);
+
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
-
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
-
-        jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
-            );
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final Map<String, ApplicationProperties.Cache.Region> regions;
+    private final ApplicationProperties.Cache.Provider cacheableProvider;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.regions = applicationProperties.getCache().getRegions();
+        this.cacheableProvider = applicationProperties.getCache().getCacheableProvider();
     }
 
     @Bean
@@ -52,17 +74,138 @@ public class CacheConfiguration {
             createCache(cm, com.okta.developer.domain.BloodPressure.class.getName());
             createCache(cm, com.okta.developer.domain.Weight.class.getName());
             createCache(cm, com.okta.developer.domain.Preferences.class.getName());
+            createCache(cm, com.okta.developer.service.RecentHealthDataService.POINTS_THIS_WEEK_CACHE);
+            createCache(cm, com.okta.developer.service.RecentHealthDataService.LATEST_WEIGHT_CACHE);
+            createCache(cm, com.okta.developer.service.RecentHealthDataService.LATEST_BLOOD_PRESSURE_CACHE);
             // jhipster-needle-ehcache-add-entry
         };
     }
 
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        if (cacheableProvider == ApplicationProperties.Cache.Provider.CAFFEINE && CACHEABLE_REGIONS.contains(cacheName)) {
+            return;
+        }
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, jcacheConfiguration(cacheName));
+        }
+        // hits, misses, puts and evictions are exported by the cache metrics, they are only counted when enabled
+        cm.enableStatistics(cacheName, true);
+    }
+
+    /**
+     * Builds the configuration of a region from its {@code application.cache.regions} settings, falling back to
+     * {@code jhipster.cache.ehcache}. Ehcache regions aren't refreshed ahead of expiry.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(String cacheName) {
+        ApplicationProperties.Cache.Region region = regions.getOrDefault(cacheName, new ApplicationProperties.Cache.Region());
+        if (region.getRefreshAfterWriteSeconds() != null) {
+            log.warn("Ignoring the refresh-after-write-seconds of the Ehcache region {}, it only applies to Caffeine regions", cacheName);
+        }
+
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.newResourcePoolsBuilder();
+        if (region.getMaxHeapSize() != null) {
+            resourcePools = resourcePools.heap(region.getMaxHeapSize().toBytes(), MemoryUnit.B);
+        } else {
+            resourcePools =
+                resourcePools.heap(region.getMaxEntries() != null ? region.getMaxEntries() : ehcache.getMaxEntries(), EntryUnit.ENTRIES);
+        }
+        if (region.getOffHeapSize() != null) {
+            resourcePools = resourcePools.offheap(region.getOffHeapSize().toBytes(), MemoryUnit.B);
+        }
+
+        ExpiryPolicy<Object, Object> expiry;
+        if (region.getTimeToIdleSeconds() != null) {
+            expiry = ExpiryPolicyBuilder.timeToIdleExpiration(Duration.ofSeconds(region.getTimeToIdleSeconds()));
+        } else {
+            long timeToLiveSeconds = region.getTimeToLiveSeconds() != null ? region.getTimeToLiveSeconds() : ehcache.getTimeToLiveSeconds();
+            expiry = ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLiveSeconds));
+        }
+
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, resourcePools).withExpiry(expiry).build()
+        );
+    }
+
+    /**
+     * Serves the {@link #CACHEABLE_REGIONS} from Caffeine when {@code application.cache.cacheable-provider} is
+     * {@code caffeine}, in front of the JCache manager that keeps serving the other regions. Spring Boot only configures
+     * JCache if no other cache manager is defined, so the one it creates is wrapped rather than replaced.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.cache.cacheable-provider", havingValue = "caffeine")
+    public static BeanPostProcessor caffeineCacheablePostProcessor(
+        ObjectProvider<JHipsterProperties> jHipsterProperties,
+        ObjectProvider<ApplicationProperties> applicationProperties,
+        ObjectProvider<UserRepository> userRepository,
+        ObjectProvider<PlatformTransactionManager> transactionManager
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof JCacheCacheManager jCacheCacheManager)) {
+                    return bean;
+                }
+                TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager.getObject());
+                transactionTemplate.setReadOnly(true);
+                Map<String, CacheLoader<Object, Object>> loaders = Map.of(
+                    UserRepository.USERS_BY_LOGIN_CACHE,
+                    login ->
+                        transactionTemplate.execute(status -> {
+                            List<User> users = userRepository.getObject().findAllWithAuthoritiesByLoginIn(List.of((String) login));
+                            return users.isEmpty() ? null : users.get(0);
+                        })
+                );
+                Map<String, ApplicationProperties.Cache.Region> regions = applicationProperties.getObject().getCache().getRegions();
+                CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+                // only the registered regions, the others are looked up in JCache
+                caffeineCacheManager.setCacheNames(List.of());
+                for (String cacheName : CACHEABLE_REGIONS) {
+                    caffeineCacheManager.registerCustomCache(
+                        cacheName,
+                        caffeineCache(
+                            cacheName,
+                            regions.getOrDefault(cacheName, new ApplicationProperties.Cache.Region()),
+                            jHipsterProperties.getObject().getCache().getEhcache(),
+                            loaders.get(cacheName)
+                        )
+                    );
+                }
+                return new CompositeCacheManager(caffeineCacheManager, jCacheCacheManager);
+            }
+        };
+    }
+
+    /**
+     * Builds a Caffeine region from its {@code application.cache.regions} settings, falling back to
+     * {@code jhipster.cache.ehcache}. Entries are only reloaded ahead of expiry when the region has a loader. Caffeine
+     * regions are bounded by their number of entries, the heap and off-heap sizes are ignored.
+     */
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeineCache(
+        String cacheName,
+        ApplicationProperties.Cache.Region region,
+        JHipsterProperties.Cache.Ehcache ehcache,
+        CacheLoader<Object, Object> loader
+    ) {
+        if (region.getMaxHeapSize() != null || region.getOffHeapSize() != null) {
+            log.warn("Ignoring the max-heap-size and off-heap-size of the Caffeine region {}, set its max-entries instead", cacheName);
+        }
+        Caffeine<Object, Object> builder = Caffeine
+            .newBuilder()
+            .maximumSize(region.getMaxEntries() != null ? region.getMaxEntries() : ehcache.getMaxEntries())
+            .recordStats();
+        if (region.getTimeToIdleSeconds() != null) {
+            builder = builder.expireAfterAccess(Duration.ofSeconds(region.getTimeToIdleSeconds()));
+        } else {
+            long timeToLiveSeconds = region.getTimeToLiveSeconds() != null ? region.getTimeToLiveSeconds() : ehcache.getTimeToLiveSeconds();
+            builder = builder.expireAfterWrite(Duration.ofSeconds(timeToLiveSeconds));
+        }
+        if (region.getRefreshAfterWriteSeconds() != null && loader != null) {
+            return builder.refreshAfterWrite(Duration.ofSeconds(region.getRefreshAfterWriteSeconds())).build(loader);
         }
+        return builder.build();
     }
 
     @Autowired(required = false)
@@ -0,0 +1,85 @@
+package com.okta.developer.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import javax.cache.CacheManager;
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exports the average latency of the cache regions.
+ * <p>
+ * Spring Boot already binds every region of the JCache {@link CacheManager} to the {@code cache.gets},
+ * {@code cache.puts}, {@code cache.evictions} and {@code cache.removals} metrics, from the statistics enabled in
+ * {@link CacheConfiguration}. The same statistics also hold the average time of the operations, which is exported here
+ * as {@code cache.gets.latency}, {@code cache.puts.latency} and {@code cache.removals.latency}, in microseconds.
+ */
+@Configuration
+public class CacheMetricsConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(CacheMetricsConfiguration.class);
+
+    @Bean
+    public MeterBinder cacheLatencyMetrics(CacheManager cacheManager) {
+        return registry -> {
+            for (String cacheName : cacheManager.getCacheNames()) {
+                findStatistics(cacheName)
+                    .ifPresent(statistics -> {
+                        registerLatency(registry, "cache.gets.latency", cacheName, statistics, CacheStatisticsMXBean::getAverageGetTime);
+                        registerLatency(registry, "cache.puts.latency", cacheName, statistics, CacheStatisticsMXBean::getAveragePutTime);
+                        registerLatency(
+                            registry,
+                            "cache.removals.latency",
+                            cacheName,
+                            statistics,
+                            CacheStatisticsMXBean::getAverageRemoveTime
+                        );
+                    });
+            }
+        };
+    }
+
+    private void registerLatency(
+        MeterRegistry registry,
+        String name,
+        String cacheName,
+        CacheStatisticsMXBean statistics,
+        ToDoubleFunction<CacheStatisticsMXBean> latency
+    ) {
+        Gauge
+            .builder(name, statistics, latency)
+            .description("Average time of the cache operations since the region was created")
+            .tag("cache", cacheName)
+            .baseUnit("microseconds")
+            .register(registry);
+    }
+
+    /**
+     * Looks up the statistics MBean the JCache provider registers for a region, like Micrometer's {@code JCacheMetrics}.
+     */
+    private Optional<CacheStatisticsMXBean> findStatistics(String cacheName) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            Set<ObjectName> names = server.queryNames(
+                new ObjectName("javax.cache:type=CacheStatistics,Cache=" + cacheName.replaceAll("[,:=\n]", ".") + ",*"),
+                null
+            );
+            return names.stream().findFirst().map(name -> JMX.newMXBeanProxy(server, name, CacheStatisticsMXBean.class));
+        } catch (MalformedObjectNameException e) {
+            log.warn("Could not look up the statistics of cache {}: {}", cacheName, e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
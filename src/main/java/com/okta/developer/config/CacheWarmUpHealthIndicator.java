@@ -0,0 +1,28 @@
+package com.okta.developer.config;
+
+import com.okta.developer.service.CacheWarmUpService;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the application out of service until the {@link CacheWarmUpService} has completed, it's included in the
+ * {@code readiness} health group.
+ */
+@Component
+public class CacheWarmUpHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmUpService cacheWarmUpService;
+
+    public CacheWarmUpHealthIndicator(CacheWarmUpService cacheWarmUpService) {
+        this.cacheWarmUpService = cacheWarmUpService;
+    }
+
+    @Override
+    public Health health() {
+        if (cacheWarmUpService.isComplete()) {
+            return Health.up().build();
+        }
+        return Health.outOfService().withDetail("reason", "Warming up the caches").build();
+    }
+}
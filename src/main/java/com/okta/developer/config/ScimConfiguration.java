@@ -0,0 +1,79 @@
+package com.okta.developer.config;
+
+import com.okta.developer.security.oauth2.ScimBulkResource;
+import com.okta.developer.security.oauth2.ScimRequestedAttributes;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.MultivaluedMap;
+import org.glassfish.jersey.server.model.ModelProcessor;
+import org.glassfish.jersey.server.model.Resource;
+import org.glassfish.jersey.server.model.ResourceModel;
+import org.springframework.boot.autoconfigure.jersey.ResourceConfigCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the application's own SCIM endpoints next to the ones provided by Apache SCIMple, replacing its bulk endpoint.
+ */
+@Configuration
+public class ScimConfiguration {
+
+    @Bean
+    public ResourceConfigCustomizer scimBulkResourceCustomizer(ScimBulkResource scimBulkResource) {
+        return config ->
+            config.register(scimBulkResource).register(ScimBulkModelProcessor.class).register(ScimRequestedAttributesFilter.class);
+    }
+
+    /**
+     * Passes the {@code attributes} and {@code excludedAttributes} parameters of the SCIM {@code GET} requests to the
+     * SCIM services, for the duration of the request.
+     */
+    public static class ScimRequestedAttributesFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+        @Override
+        public void filter(ContainerRequestContext requestContext) {
+            if (HttpMethod.GET.equals(requestContext.getMethod())) {
+                MultivaluedMap<String, String> parameters = requestContext.getUriInfo().getQueryParameters();
+                ScimRequestedAttributes.set(parameters.getFirst("attributes"), parameters.getFirst("excludedAttributes"));
+            } else {
+                ScimRequestedAttributes.clear();
+            }
+        }
+
+        @Override
+        public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+            ScimRequestedAttributes.clear();
+        }
+    }
+
+    /**
+     * Removes Apache SCIMple's {@code /Bulk} resource from the Jersey model, bulk requests are only handled by
+     * {@link ScimBulkResource} so they can't bypass its chunked transactions.
+     */
+    public static class ScimBulkModelProcessor implements ModelProcessor {
+
+        @Override
+        public ResourceModel processResourceModel(ResourceModel resourceModel, jakarta.ws.rs.core.Configuration configuration) {
+            ResourceModel.Builder builder = new ResourceModel.Builder(false);
+            resourceModel.getResources().stream().filter(resource -> !isScimpleBulkResource(resource)).forEach(builder::addResource);
+            return builder.build();
+        }
+
+        @Override
+        public ResourceModel processSubResource(ResourceModel subResourceModel, jakarta.ws.rs.core.Configuration configuration) {
+            return subResourceModel;
+        }
+
+        private static boolean isScimpleBulkResource(Resource resource) {
+            String path = resource.getPath() != null ? resource.getPath().replaceAll("^/+|/+$", "") : "";
+            boolean bulk = path.equals("Bulk") || path.endsWith("/Bulk");
+            boolean ours =
+                resource.getHandlerClasses().contains(ScimBulkResource.class) ||
+                resource.getHandlerInstances().stream().anyMatch(ScimBulkResource.class::isInstance);
+            return bulk && !ours;
+        }
+    }
+}
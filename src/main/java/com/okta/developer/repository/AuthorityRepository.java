@@ -1,12 +1,44 @@
 package com.okta.developer.repository;
 
 import com.okta.developer.domain.Authority;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Spring Data JPA repository for the {@link Authority} entity.
+ * <p>
+ * Membership changes are written to {@code jhi_user_authority} directly, the native query space hint limits the
+ * second-level cache invalidation to the regions mapped to that table.
  */
-public interface AuthorityRepository extends JpaRepository<Authority, String> {
+public interface AuthorityRepository extends AuthorityRepositoryWithUpsert, JpaRepository<Authority, String> {
+    String USER_AUTHORITY_QUERY_SPACE = "jhi_user_authority";
+
+    String NATIVE_QUERY_SPACES_HINT = "org.hibernate.query.native.spaces";
+
     Optional<Authority> findByName(String name);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_QUERY_SPACES_HINT, value = USER_AUTHORITY_QUERY_SPACE))
+    @Query(
+        value = "insert into jhi_user_authority (user_id, authority_name) " +
+        "select users.id, :authorityName from jhi_user users where users.id in :userIds and not exists " +
+        "(select 1 from jhi_user_authority user_authority where user_authority.user_id = users.id " +
+        "and user_authority.authority_name = :authorityName)",
+        nativeQuery = true
+    )
+    int addMembers(@Param("authorityName") String authorityName, @Param("userIds") Collection<String> userIds);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_QUERY_SPACES_HINT, value = USER_AUTHORITY_QUERY_SPACE))
+    @Query(
+        value = "delete from jhi_user_authority where authority_name = :authorityName and user_id in :userIds",
+        nativeQuery = true
+    )
+    int removeMembers(@Param("authorityName") String authorityName, @Param("userIds") Collection<String> userIds);
 }
@@ -0,0 +1,15 @@
+package com.okta.developer.repository;
+
+import java.util.Collection;
+
+/**
+ * Set-based writes for the {@link com.okta.developer.domain.Authority} entity.
+ */
+public interface AuthorityRepositoryWithUpsert {
+    /**
+     * Inserts the authorities in a single JDBC batch, skipping the ones that already exist.
+     *
+     * @param names the names of the authorities to insert.
+     */
+    void upsertAll(Collection<String> names);
+}
@@ -0,0 +1,43 @@
+package com.okta.developer.repository;
+
+import java.util.Collection;
+import java.util.List;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Inserts authorities with {@code INSERT ... ON CONFLICT DO NOTHING} on PostgreSQL, or {@code MERGE} on H2.
+ */
+public class AuthorityRepositoryWithUpsertImpl implements AuthorityRepositoryWithUpsert {
+
+    private static final String POSTGRESQL_UPSERT = "insert into jhi_authority (name) values (?) on conflict do nothing";
+
+    private static final String MERGE_UPSERT = "merge into jhi_authority (name) key (name) values (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile String upsertSql;
+
+    public AuthorityRepositoryWithUpsertImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void upsertAll(Collection<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        List<Object[]> batchArgs = names.stream().map(name -> new Object[] { name }).toList();
+        jdbcTemplate.batchUpdate(upsertSql(), batchArgs);
+    }
+
+    private String upsertSql() {
+        if (upsertSql == null) {
+            String databaseProductName = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()
+            );
+            upsertSql = "PostgreSQL".equals(databaseProductName) ? POSTGRESQL_UPSERT : MERGE_UPSERT;
+        }
+        return upsertSql;
+    }
+}
@@ -1,10 +1,15 @@
 package com.okta.developer.repository;
 
 import com.okta.developer.domain.BloodPressure;
+import jakarta.persistence.QueryHint;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,6 +22,30 @@ public interface BloodPressureRepository extends JpaRepository<BloodPressure, Lo
     @Query("select bloodPressure from BloodPressure bloodPressure where bloodPressure.user.login = ?#{principal.preferredUsername}")
     List<BloodPressure> findByUserIsCurrentUser();
 
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+        }
+    )
+    @Query("select bloodPressure from BloodPressure bloodPressure where bloodPressure.user.login = :login order by bloodPressure.timestamp, bloodPressure.id")
+    Stream<BloodPressure> streamAllByUserLogin(@Param("login") String login);
+
+    Page<BloodPressure> findAllByUserLoginAndTimestampBetween(String login, ZonedDateTime from, ZonedDateTime to, Pageable pageable);
+
+    Page<BloodPressure> findAllByUserLoginAndTimestampLessThanEqual(String login, ZonedDateTime to, Pageable pageable);
+
+    Optional<BloodPressure> findFirstByUserIdOrderByTimestampDescIdDesc(String userId);
+
+    List<BloodPressure> findAllByOrderByTimestampDescIdDesc(Pageable pageable);
+
+    @Query(
+        "select bloodPressure from BloodPressure bloodPressure where bloodPressure.timestamp <= :timestamp" +
+        " and (bloodPressure.timestamp < :timestamp or bloodPressure.id < :id) order by bloodPressure.timestamp desc, bloodPressure.id desc"
+    )
+    List<BloodPressure> findAllBefore(@Param("timestamp") ZonedDateTime timestamp, @Param("id") Long id, Pageable pageable);
+
     default Optional<BloodPressure> findOneWithEagerRelationships(Long id) {
         return this.findOneWithToOneRelationships(id);
     }
@@ -29,12 +58,21 @@ public interface BloodPressureRepository extends JpaRepository<BloodPressure, Lo
         return this.findAllWithToOneRelationships(pageable);
     }
 
+    default Slice<BloodPressure> findSliceWithEagerRelationships(Pageable pageable) {
+        return this.findSliceWithToOneRelationships(pageable);
+    }
+
+    Slice<BloodPressure> findSliceBy(Pageable pageable);
+
     @Query(
         value = "select bloodPressure from BloodPressure bloodPressure left join fetch bloodPressure.user",
         countQuery = "select count(bloodPressure) from BloodPressure bloodPressure"
     )
     Page<BloodPressure> findAllWithToOneRelationships(Pageable pageable);
 
+    @Query("select bloodPressure from BloodPressure bloodPressure left join fetch bloodPressure.user")
+    Slice<BloodPressure> findSliceWithToOneRelationships(Pageable pageable);
+
     @Query("select bloodPressure from BloodPressure bloodPressure left join fetch bloodPressure.user")
     List<BloodPressure> findAllWithToOneRelationships();
 
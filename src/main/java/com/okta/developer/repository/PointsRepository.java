@@ -1,8 +1,12 @@
 package com.okta.developer.repository;
 
 import com.okta.developer.domain.Points;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
@@ -11,12 +15,52 @@ import org.springframework.stereotype.Repository;
 
 /**
  * Spring Data JPA repository for the Points entity.
+ * <p>
+ * The weekly totals are read from {@code points_weekly_total}, which is maintained by
+ * {@link com.okta.developer.service.PointsRollupService}.
  */
 @Repository
-public interface PointsRepository extends JpaRepository<Points, Long> {
+public interface PointsRepository extends PointsRepositoryWithUpsert, JpaRepository<Points, Long> {
+    String WEEKLY_TOTAL_QUERY_SPACE = "points_weekly_total";
+
     @Query("select points from Points points where points.user.login = ?#{principal.preferredUsername}")
     List<Points> findByUserIsCurrentUser();
 
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+        }
+    )
+    @Query("select points from Points points where points.user.login = :login order by points.date, points.id")
+    Stream<Points> streamAllByUserLogin(@Param("login") String login);
+
+    Page<Points> findAllByUserLoginAndDateBetween(String login, LocalDate from, LocalDate to, Pageable pageable);
+
+    Page<Points> findAllByUserLoginAndDateLessThanEqual(String login, LocalDate to, Pageable pageable);
+
+    List<Points> findAllByUserIdAndDateBetweenOrderByDateAscIdAsc(String userId, LocalDate from, LocalDate to);
+
+    @Query(
+        value = "select total.week as period, total.entries, total.exercise, total.meals, total.alcohol" +
+        " from points_weekly_total total join jhi_user u on u.id = total.user_id" +
+        " where u.login = :login and total.week between :from and :to order by total.week",
+        nativeQuery = true
+    )
+    List<PointsPerPeriod> findWeeklyTotals(@Param("login") String login, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(
+        value = "select cast(date_trunc('month', points.date) as date) as period, count(*) as entries," +
+        " coalesce(sum(points.exercise), 0) as exercise, coalesce(sum(points.meals), 0) as meals," +
+        " coalesce(sum(points.alcohol), 0) as alcohol" +
+        " from points points join jhi_user u on u.id = points.user_id" +
+        " where u.login = :login and points.date between :from and :to" +
+        " group by cast(date_trunc('month', points.date) as date) order by period",
+        nativeQuery = true
+    )
+    List<PointsPerPeriod> sumByMonth(@Param("login") String login, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
     default Optional<Points> findOneWithEagerRelationships(Long id) {
         return this.findOneWithToOneRelationships(id);
     }
@@ -37,4 +81,39 @@ public interface PointsRepository extends JpaRepository<Points, Long> {
 
     @Query("select points from Points points left join fetch points.user where points.id =:id")
     Optional<Points> findOneWithToOneRelationships(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = AuthorityRepository.NATIVE_QUERY_SPACES_HINT, value = WEEKLY_TOTAL_QUERY_SPACE))
+    @Query(value = "delete from points_weekly_total where user_id = :userId and week = :week", nativeQuery = true)
+    int deleteWeeklyTotal(@Param("userId") String userId, @Param("week") LocalDate week);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = AuthorityRepository.NATIVE_QUERY_SPACES_HINT, value = WEEKLY_TOTAL_QUERY_SPACE))
+    @Query(
+        value = "insert into points_weekly_total (user_id, week, entries, exercise, meals, alcohol)" +
+        " select points.user_id, :week, count(*), coalesce(sum(points.exercise), 0), coalesce(sum(points.meals), 0)," +
+        " coalesce(sum(points.alcohol), 0) from points points" +
+        " where points.user_id = :userId and points.date between :week and :weekEnd group by points.user_id",
+        nativeQuery = true
+    )
+    int insertWeeklyTotal(@Param("userId") String userId, @Param("week") LocalDate week, @Param("weekEnd") LocalDate weekEnd);
+
+    /**
+     * The points of a user summed over a week or a month.
+     */
+    interface PointsPerPeriod {
+        LocalDate getPeriod();
+
+        long getEntries();
+
+        long getExercise();
+
+        long getMeals();
+
+        long getAlcohol();
+
+        default long getTotal() {
+            return getExercise() + getMeals() + getAlcohol();
+        }
+    }
 }
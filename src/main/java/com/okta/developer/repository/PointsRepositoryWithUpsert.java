@@ -0,0 +1,32 @@
+package com.okta.developer.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Locking and set-based writes of the weekly totals of the {@link com.okta.developer.domain.Points} entity.
+ */
+public interface PointsRepositoryWithUpsert {
+    /**
+     * Locks the row of a user until the end of the transaction, so the weekly totals of a user are recomputed by one
+     * transaction at a time, each one seeing the points committed by the previous one.
+     *
+     * @param userId the id of the user.
+     */
+    void lockWeeklyTotals(String userId);
+
+    /**
+     * Takes a lock held until the end of the transaction, so the weekly totals are reconciled by a single node.
+     *
+     * @return {@code true} if the lock was taken, {@code false} if another transaction holds it.
+     */
+    boolean tryLockReconciliation();
+
+    /**
+     * Recomputes the totals of every user for a week with an upsert, and deletes the totals of the users who have no
+     * points left that week.
+     *
+     * @param week the first day of the week.
+     * @param weekEnd the last day of the week.
+     */
+    void upsertWeeklyTotals(LocalDate week, LocalDate weekEnd);
+}
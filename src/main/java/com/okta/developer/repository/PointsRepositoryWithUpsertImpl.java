@@ -0,0 +1,82 @@
+package com.okta.developer.repository;
+
+import java.time.LocalDate;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Upserts the weekly totals with {@code INSERT ... ON CONFLICT DO UPDATE} on PostgreSQL, or {@code MERGE} on H2.
+ * <p>
+ * On PostgreSQL the user row is locked with {@code FOR NO KEY UPDATE}, which doesn't conflict with the key share lock
+ * taken by the points inserted for the same user, and the reconciliation lock is a transaction-level advisory lock.
+ */
+public class PointsRepositoryWithUpsertImpl implements PointsRepositoryWithUpsert {
+
+    private static final String POSTGRESQL_LOCK_USER = "select id from jhi_user where id = ? for no key update";
+
+    private static final String LOCK_USER = "select id from jhi_user where id = ? for update";
+
+    private static final String POSTGRESQL_TRY_LOCK_RECONCILIATION = "select pg_try_advisory_xact_lock(?)";
+
+    /**
+     * Key of the advisory lock taken by the reconciliation, an arbitrary constant of this application.
+     */
+    private static final long RECONCILIATION_LOCK_KEY = 0x706f696e7473L;
+
+    private static final String WEEKLY_TOTALS_SELECT =
+        "select points.user_id, cast(? as date), count(*), coalesce(sum(points.exercise), 0), coalesce(sum(points.meals), 0)," +
+        " coalesce(sum(points.alcohol), 0) from points points" +
+        " where points.user_id is not null and points.date between ? and ? group by points.user_id";
+
+    private static final String POSTGRESQL_UPSERT =
+        "insert into points_weekly_total (user_id, week, entries, exercise, meals, alcohol) " +
+        WEEKLY_TOTALS_SELECT +
+        " on conflict (user_id, week) do update set entries = excluded.entries, exercise = excluded.exercise," +
+        " meals = excluded.meals, alcohol = excluded.alcohol";
+
+    private static final String MERGE_UPSERT =
+        "merge into points_weekly_total (user_id, week, entries, exercise, meals, alcohol) key (user_id, week) " +
+        WEEKLY_TOTALS_SELECT;
+
+    private static final String DELETE_EMPTY_WEEKLY_TOTALS =
+        "delete from points_weekly_total where week = ? and not exists (select 1 from points points" +
+        " where points.user_id = points_weekly_total.user_id and points.date between ? and ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgreSql;
+
+    public PointsRepositoryWithUpsertImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void lockWeeklyTotals(String userId) {
+        jdbcTemplate.queryForList(isPostgreSql() ? POSTGRESQL_LOCK_USER : LOCK_USER, String.class, userId);
+    }
+
+    @Override
+    public boolean tryLockReconciliation() {
+        if (!isPostgreSql()) {
+            // H2 is only used by a single node
+            return true;
+        }
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(POSTGRESQL_TRY_LOCK_RECONCILIATION, Boolean.class, RECONCILIATION_LOCK_KEY));
+    }
+
+    @Override
+    public void upsertWeeklyTotals(LocalDate week, LocalDate weekEnd) {
+        jdbcTemplate.update(isPostgreSql() ? POSTGRESQL_UPSERT : MERGE_UPSERT, week, week, weekEnd);
+        jdbcTemplate.update(DELETE_EMPTY_WEEKLY_TOTALS, week, week, weekEnd);
+    }
+
+    private boolean isPostgreSql() {
+        if (postgreSql == null) {
+            String databaseProductName = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()
+            );
+            postgreSql = "PostgreSQL".equals(databaseProductName);
+        }
+        return postgreSql;
+    }
+}
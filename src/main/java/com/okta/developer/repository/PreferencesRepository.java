@@ -1,6 +1,7 @@
 package com.okta.developer.repository;
 
 import com.okta.developer.domain.Preferences;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -37,4 +38,6 @@ public interface PreferencesRepository extends JpaRepository<Preferences, Long>
 
     @Query("select preferences from Preferences preferences left join fetch preferences.user where preferences.id =:id")
     Optional<Preferences> findOneWithToOneRelationships(@Param("id") Long id);
+
+    List<Preferences> findAllByUserIdIn(Collection<String> userIds);
 }
@@ -0,0 +1,72 @@
+package com.okta.developer.repository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads the row count estimates maintained by the database statistics, so lists can report an approximate total
+ * without a {@code COUNT} query. Estimates are only available on PostgreSQL, from {@code pg_class.reltuples}, and are
+ * kept for a minute so scrolling through a list doesn't query the catalog for every page.
+ */
+@Repository
+public class TableStatisticsRepository {
+
+    private static final String POSTGRESQL_ESTIMATE = "select cast(reltuples as bigint) from pg_class where relname = ?";
+
+    private static final long ESTIMATE_TTL_NANOS = Duration.ofMinutes(1).toNanos();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, Estimate> estimates = new ConcurrentHashMap<>();
+
+    private volatile Boolean postgresql;
+
+    public TableStatisticsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Estimates the number of rows of a table.
+     *
+     * @param tableName the name of the table.
+     * @return the estimate, or empty if the database doesn't provide one or the table was never analyzed.
+     */
+    public OptionalLong estimateRowCount(String tableName) {
+        if (!isPostgresql()) {
+            return OptionalLong.empty();
+        }
+        long now = System.nanoTime();
+        Estimate estimate = estimates.get(tableName);
+        if (estimate == null || now - estimate.readAt() > ESTIMATE_TTL_NANOS) {
+            estimate = new Estimate(queryRowCount(tableName), now);
+            estimates.put(tableName, estimate);
+        }
+        return estimate.rowCount();
+    }
+
+    private OptionalLong queryRowCount(String tableName) {
+        List<Long> rowCounts = jdbcTemplate.queryForList(POSTGRESQL_ESTIMATE, Long.class, tableName);
+        // reltuples is -1 until the table is first vacuumed or analyzed
+        return rowCounts.isEmpty() || rowCounts.get(0) == null || rowCounts.get(0) < 0
+            ? OptionalLong.empty()
+            : OptionalLong.of(rowCounts.get(0));
+    }
+
+    private boolean isPostgresql() {
+        if (postgresql == null) {
+            String databaseProductName = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()
+            );
+            postgresql = "PostgreSQL".equals(databaseProductName);
+        }
+        return postgresql;
+    }
+
+    private record Estimate(OptionalLong rowCount, long readAt) {}
+}
@@ -1,12 +1,15 @@
 package com.okta.developer.repository;
 
 import com.okta.developer.domain.User;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -20,9 +23,51 @@ public interface UserRepository extends JpaRepository<User, String> {
 
     Optional<User> findOneByLogin(String login);
 
+    List<User> findAllByLoginIn(Collection<String> logins);
+
     @EntityGraph(attributePaths = "authorities")
     @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE)
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
     Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+
+    @EntityGraph(attributePaths = "authorities")
+    List<User> findAllWithAuthoritiesByLoginIn(Collection<String> logins);
+
+    @EntityGraph(attributePaths = "authorities")
+    List<User> findAllWithAuthoritiesByIdIn(Collection<String> ids);
+
+    @Query("select users.login from User users where users.activated = true order by users.lastModifiedDate desc, users.id")
+    List<String> findRecentlyModifiedActiveLogins(Pageable pageable);
+
+    @Query(
+        "select authority.name as authorityName, users.id as userId, users.login as login " +
+        "from User users join users.authorities authority where authority.name in :authorityNames"
+    )
+    List<AuthorityMember> findAuthorityMembersByAuthorityNameIn(@Param("authorityNames") Collection<String> authorityNames);
+
+    @Query("select users.id as id, users.login as login, users.email as email from User users where users.id in :ids")
+    List<UserIdentity> findIdentitiesByIdIn(@Param("ids") Collection<String> ids);
+
+    /**
+     * The identifiers of a {@link User}, read without loading the entity.
+     */
+    interface UserIdentity {
+        String getId();
+
+        String getLogin();
+
+        String getEmail();
+    }
+
+    /**
+     * A member of an authority, read from {@code jhi_user_authority} without loading the {@link User}.
+     */
+    interface AuthorityMember {
+        String getAuthorityName();
+
+        String getUserId();
+
+        String getLogin();
+    }
 }
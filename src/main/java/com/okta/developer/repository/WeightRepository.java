@@ -1,10 +1,15 @@
 package com.okta.developer.repository;
 
 import com.okta.developer.domain.Weight;
+import jakarta.persistence.QueryHint;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,6 +22,30 @@ public interface WeightRepository extends JpaRepository<Weight, Long> {
     @Query("select weight from Weight weight where weight.user.login = ?#{principal.preferredUsername}")
     List<Weight> findByUserIsCurrentUser();
 
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+        }
+    )
+    @Query("select weight from Weight weight where weight.user.login = :login order by weight.timestamp, weight.id")
+    Stream<Weight> streamAllByUserLogin(@Param("login") String login);
+
+    Page<Weight> findAllByUserLoginAndTimestampBetween(String login, ZonedDateTime from, ZonedDateTime to, Pageable pageable);
+
+    Page<Weight> findAllByUserLoginAndTimestampLessThanEqual(String login, ZonedDateTime to, Pageable pageable);
+
+    Optional<Weight> findFirstByUserIdOrderByTimestampDescIdDesc(String userId);
+
+    List<Weight> findAllByOrderByTimestampDescIdDesc(Pageable pageable);
+
+    @Query(
+        "select weight from Weight weight where weight.timestamp <= :timestamp" +
+        " and (weight.timestamp < :timestamp or weight.id < :id) order by weight.timestamp desc, weight.id desc"
+    )
+    List<Weight> findAllBefore(@Param("timestamp") ZonedDateTime timestamp, @Param("id") Long id, Pageable pageable);
+
     default Optional<Weight> findOneWithEagerRelationships(Long id) {
         return this.findOneWithToOneRelationships(id);
     }
@@ -29,9 +58,18 @@ public interface WeightRepository extends JpaRepository<Weight, Long> {
         return this.findAllWithToOneRelationships(pageable);
     }
 
+    default Slice<Weight> findSliceWithEagerRelationships(Pageable pageable) {
+        return this.findSliceWithToOneRelationships(pageable);
+    }
+
+    Slice<Weight> findSliceBy(Pageable pageable);
+
     @Query(value = "select weight from Weight weight left join fetch weight.user", countQuery = "select count(weight) from Weight weight")
     Page<Weight> findAllWithToOneRelationships(Pageable pageable);
 
+    @Query("select weight from Weight weight left join fetch weight.user")
+    Slice<Weight> findSliceWithToOneRelationships(Pageable pageable);
+
     @Query("select weight from Weight weight left join fetch weight.user")
     List<Weight> findAllWithToOneRelationships();
 
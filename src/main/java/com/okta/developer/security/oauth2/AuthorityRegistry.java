@@ -0,0 +1,120 @@
+package com.okta.developer.security.oauth2;
+
+import com.okta.developer.cache.CacheInvalidationBus;
+import com.okta.developer.domain.Authority;
+import com.okta.developer.repository.AuthorityRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-process registry of the authority names stored in the database, so syncing the groups of SCIM users doesn't read
+ * the {@code jhi_authority} table on every write.
+ * <p>
+ * The registry is warmed when the application is ready (or on first use), and kept up to date by the SCIM services.
+ * Names are only registered once the transaction that inserted them has committed. Deleted names are evicted on every
+ * node through the {@link CacheInvalidationBus}, so the other nodes upsert a group again when it's re-created instead
+ * of inserting members that reference a missing authority.
+ */
+@Component
+public class AuthorityRegistry {
+
+    static final String CACHE_NAME = "authorityRegistry";
+
+    private final Logger log = LoggerFactory.getLogger(AuthorityRegistry.class);
+
+    private final Set<String> names = ConcurrentHashMap.newKeySet();
+
+    private final AuthorityRepository authorityRepository;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private volatile boolean loaded;
+
+    public AuthorityRegistry(AuthorityRepository authorityRepository, CacheInvalidationBus cacheInvalidationBus) {
+        this.authorityRepository = authorityRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        cacheInvalidationBus.register(CACHE_NAME, this::evictLocally);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            load();
+        } catch (DataAccessException e) {
+            log.warn("Could not warm up the authority registry, it will be loaded on first use: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Makes sure the authorities exist, inserting the missing ones with a single batch upsert.
+     *
+     * @param authorityNames the names of the authorities.
+     */
+    public void ensureExists(Collection<String> authorityNames) {
+        if (!loaded) {
+            load();
+        }
+        List<String> missing = authorityNames.stream().distinct().filter(name -> !names.contains(name)).toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        log.debug("Saving authorities {} in local database", missing);
+        authorityRepository.upsertAll(missing);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        names.addAll(missing);
+                    }
+                }
+            );
+        } else {
+            names.addAll(missing);
+        }
+    }
+
+    /**
+     * Removes an authority from the registry of every node, when it's deleted.
+     *
+     * @param authorityName the name of the authority.
+     */
+    public void evict(String authorityName) {
+        cacheInvalidationBus.evict(CACHE_NAME, List.of(authorityName));
+    }
+
+    /**
+     * Clears the registry of every node, so it is reloaded from the database on next use.
+     */
+    public void invalidate() {
+        cacheInvalidationBus.evictAll(CACHE_NAME);
+    }
+
+    private void evictLocally(Set<String> authorityNames) {
+        if (authorityNames.contains(null)) {
+            loaded = false;
+            names.clear();
+        } else {
+            names.removeAll(authorityNames);
+        }
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        authorityRepository.findAll().stream().map(Authority::getName).forEach(names::add);
+        loaded = true;
+        log.debug("Loaded {} authorities in the authority registry", names.size());
+    }
+}
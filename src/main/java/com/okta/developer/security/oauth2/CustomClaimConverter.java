@@ -3,13 +3,20 @@ package com.okta.developer.security.oauth2;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
 import com.okta.developer.security.SecurityUtils;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.springframework.core.convert.converter.Converter;
@@ -17,6 +24,7 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
@@ -31,6 +39,10 @@ import org.springframework.web.context.request.ServletRequestAttributes;
  */
 public class CustomClaimConverter implements Converter<Map<String, Object>, Map<String, Object>> {
 
+    private static final Duration REFRESH_AFTER = Duration.ofMinutes(15);
+
+    private static final Duration EXPIRE_AFTER = Duration.ofHours(1);
+
     private final BearerTokenResolver bearerTokenResolver = new DefaultBearerTokenResolver();
 
     private final MappedJwtClaimSetConverter delegate = MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
@@ -41,16 +53,68 @@ public class CustomClaimConverter implements Converter<Map<String, Object>, Map<
 
     // See https://github.com/jhipster/generator-jhipster/issues/18868
     // We don't use a distributed cache or the user selected cache implementation here on purpose
-    private final Cache<String, ObjectNode> users = Caffeine
-        .newBuilder()
-        .maximumSize(10_000)
-        .expireAfterWrite(Duration.ofHours(1))
-        .recordStats()
-        .build();
+    // Entries older than REFRESH_AFTER are reloaded in the background on their next read, while the cached value keeps
+    // being returned. A failed reload keeps the cached value until it expires.
+    private final LoadingCache<String, ObjectNode> users;
+
+    // The Authorization header of the latest request of each user, read by the loads and reloads of its user info
+    private final Cache<String, String> authorizations;
 
     public CustomClaimConverter(ClientRegistration registration, RestTemplate restTemplate) {
+        this(registration, restTemplate, Ticker.systemTicker(), newRefreshExecutor());
+    }
+
+    CustomClaimConverter(ClientRegistration registration, RestTemplate restTemplate, Ticker ticker, Executor refreshExecutor) {
         this.registration = registration;
         this.restTemplate = restTemplate;
+        this.authorizations = Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(EXPIRE_AFTER).ticker(ticker).build();
+        this.users =
+            Caffeine
+                .newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(EXPIRE_AFTER)
+                .refreshAfterWrite(REFRESH_AFTER)
+                .executor(refreshExecutor)
+                .ticker(ticker)
+                .recordStats()
+                .build(
+                    new CacheLoader<>() {
+                        @Override
+                        public ObjectNode load(String sub) {
+                            return fetchUserInfo(sub);
+                        }
+
+                        @Override
+                        public ObjectNode reload(String sub, ObjectNode cached) {
+                            ObjectNode user = fetchUserInfo(sub);
+                            if (user == null) {
+                                // a null reload would remove the cached value
+                                throw new IllegalStateException("Empty user info response for " + sub);
+                            }
+                            return user;
+                        }
+                    }
+                );
+    }
+
+    /**
+     * A small pool for the reloads, so a slow provider can't tie up more threads. The reloads beyond its queue are
+     * dropped on purpose: the cached value is then returned until it expires and is loaded again.
+     */
+    private static Executor newRefreshExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("userinfo-refresh-");
+        threadFactory.setDaemon(true);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            2,
+            2,
+            1,
+            TimeUnit.MINUTES,
+            new ArrayBlockingQueue<>(1000),
+            threadFactory,
+            new ThreadPoolExecutor.DiscardPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     public Map<String, Object> convert(Map<String, Object> claims) {
@@ -61,24 +125,14 @@ public class CustomClaimConverter implements Converter<Map<String, Object>, Map<
         }
         RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
         if (attributes instanceof ServletRequestAttributes) {
-            // Retrieve and set the token
+            // Retrieve the token
             String token = bearerTokenResolver.resolve(((ServletRequestAttributes) attributes).getRequest());
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", buildBearer(token));
-
-            // Retrieve user info from OAuth provider if not already loaded
-            ObjectNode user = users.get(
-                claims.get("sub").toString(),
-                s -> {
-                    ResponseEntity<ObjectNode> userInfo = restTemplate.exchange(
-                        registration.getProviderDetails().getUserInfoEndpoint().getUri(),
-                        HttpMethod.GET,
-                        new HttpEntity<String>(headers),
-                        ObjectNode.class
-                    );
-                    return userInfo.getBody();
-                }
-            );
+
+            // Retrieve user info from OAuth provider if not already loaded, the token is set first so a load or
+            // reload triggered by this read uses it
+            String sub = claims.get("sub").toString();
+            authorizations.put(sub, buildBearer(token));
+            ObjectNode user = users.get(sub);
 
             // Add custom claims
             if (user != null) {
@@ -119,6 +173,22 @@ public class CustomClaimConverter implements Converter<Map<String, Object>, Map<
         return convertedClaims;
     }
 
+    private ObjectNode fetchUserInfo(String sub) {
+        String authorization = authorizations.getIfPresent(sub);
+        if (authorization == null) {
+            throw new IllegalStateException("No token to load the user info of " + sub);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", authorization);
+        ResponseEntity<ObjectNode> userInfo = restTemplate.exchange(
+            registration.getProviderDetails().getUserInfoEndpoint().getUri(),
+            HttpMethod.GET,
+            new HttpEntity<String>(headers),
+            ObjectNode.class
+        );
+        return userInfo.getBody();
+    }
+
     private String buildBearer(String token) {
         return "Bearer " + token;
     }
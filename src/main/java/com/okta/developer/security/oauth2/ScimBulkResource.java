@@ -0,0 +1,33 @@
+package com.okta.developer.security.oauth2;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.apache.directory.scim.protocol.data.BulkRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * SCIM {@code /v2/Bulk} endpoint, applying bulk requests in chunked transactions with {@link ScimBulkService}.
+ */
+@Component
+@Path("v2/Bulk")
+public class ScimBulkResource {
+
+    private static final String SCIM_CONTENT_TYPE = "application/scim+json";
+
+    private final ScimBulkService scimBulkService;
+
+    public ScimBulkResource(ScimBulkService scimBulkService) {
+        this.scimBulkService = scimBulkService;
+    }
+
+    @POST
+    @Consumes({ SCIM_CONTENT_TYPE, MediaType.APPLICATION_JSON })
+    @Produces({ SCIM_CONTENT_TYPE, MediaType.APPLICATION_JSON })
+    public Response doBulk(BulkRequest bulkRequest) {
+        return Response.ok(scimBulkService.process(bulkRequest)).build();
+    }
+}
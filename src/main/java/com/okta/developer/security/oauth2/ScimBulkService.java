@@ -0,0 +1,225 @@
+package com.okta.developer.security.oauth2;
+
+import com.okta.developer.config.ApplicationProperties;
+import com.okta.developer.domain.User;
+import com.okta.developer.repository.UserRepository;
+import jakarta.ws.rs.core.Response.Status;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.directory.scim.protocol.data.BulkOperation;
+import org.apache.directory.scim.protocol.data.BulkRequest;
+import org.apache.directory.scim.protocol.data.BulkResponse;
+import org.apache.directory.scim.protocol.data.ErrorResponse;
+import org.apache.directory.scim.spec.exception.ResourceException;
+import org.apache.directory.scim.spec.resources.ScimGroup;
+import org.apache.directory.scim.spec.resources.ScimUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Applies SCIM bulk requests (RFC 7644, section 3.7) to {@link ScimUserService} and {@link ScimGroupService}.
+ * <p>
+ * Operations are applied in chunks of {@code application.scim.bulk.chunk-size}, each chunk in its own transaction, so
+ * Hibernate can send the writes in JDBC batches. Authorities and existing users are resolved once per chunk, not once
+ * per operation. {@code bulkId} references between operations are not supported.
+ */
+@Service
+public class ScimBulkService {
+
+    private static final String USERS = "Users";
+
+    private static final String GROUPS = "Groups";
+
+    private final Logger log = LoggerFactory.getLogger(ScimBulkService.class);
+
+    private final ScimUserService scimUserService;
+
+    private final ScimGroupService scimGroupService;
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    public ScimBulkService(
+        ScimUserService scimUserService,
+        ScimGroupService scimGroupService,
+        UserRepository userRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.scimUserService = scimUserService;
+        this.scimGroupService = scimGroupService;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = applicationProperties.getScim().getBulk().getChunkSize();
+    }
+
+    /**
+     * Applies the operations of a bulk request, stopping after the chunk where {@code failOnErrors} is reached.
+     *
+     * @param bulkRequest the bulk request.
+     * @return the bulk response, with the status of every applied operation.
+     */
+    public BulkResponse process(BulkRequest bulkRequest) {
+        List<BulkOperation> operations = bulkRequest.getOperations() != null ? bulkRequest.getOperations() : List.of();
+        int failOnErrors = bulkRequest.getFailOnErrors() != null ? bulkRequest.getFailOnErrors() : Integer.MAX_VALUE;
+        log.debug("Processing {} bulk operations in chunks of {}", operations.size(), chunkSize);
+
+        List<BulkOperation> processed = new ArrayList<>(operations.size());
+        int errors = 0;
+        for (int i = 0; i < operations.size() && errors < failOnErrors; i += chunkSize) {
+            List<BulkOperation> chunk = operations.subList(i, Math.min(i + chunkSize, operations.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> processChunk(chunk));
+            } catch (RuntimeException e) {
+                log.warn("Bulk chunk of {} operations was rolled back: {}", chunk.size(), e.getMessage());
+                chunk.forEach(operation -> fail(operation, Status.INTERNAL_SERVER_ERROR, "Rolled back: " + e.getMessage()));
+            }
+            errors += (int) chunk.stream().filter(operation -> operation.getResponse() != null).count();
+            processed.addAll(chunk);
+        }
+
+        BulkResponse bulkResponse = new BulkResponse();
+        bulkResponse.setOperations(processed);
+        bulkResponse.setStatus(Status.OK);
+        return bulkResponse;
+    }
+
+    private void processChunk(List<BulkOperation> chunk) {
+        List<ScimUser> users = chunk
+            .stream()
+            .filter(operation -> USERS.equals(resourceType(operation)) && operation.getData() instanceof ScimUser)
+            .map(operation -> (ScimUser) operation.getData())
+            .toList();
+        scimUserService.saveAuthorities(users);
+
+        // one query each for the logins that would conflict and the users that are updated or deleted
+        Set<String> existingLogins = userRepository
+            .findAllByLoginIn(users.stream().map(ScimUser::getUserName).toList())
+            .stream()
+            .map(User::getLogin)
+            .collect(Collectors.toSet());
+        List<String> ids = new ArrayList<>(users.stream().map(ScimUser::getExternalId).filter(Objects::nonNull).toList());
+        chunk
+            .stream()
+            .filter(operation -> USERS.equals(resourceType(operation)))
+            .map(this::resourceId)
+            .filter(Objects::nonNull)
+            .forEach(ids::add);
+        Set<String> existingIds = userRepository
+            .findAllById(ids)
+            .stream()
+            .map(User::getId)
+            .collect(Collectors.toCollection(HashSet::new));
+
+        for (BulkOperation operation : chunk) {
+            try {
+                switch (resourceType(operation)) {
+                    case USERS -> processUser(operation, existingLogins, existingIds);
+                    case GROUPS -> processGroup(operation);
+                    default -> fail(operation, Status.BAD_REQUEST, "Unsupported path: " + operation.getPath());
+                }
+            } catch (ResourceException e) {
+                fail(operation, Status.fromStatusCode(e.getStatus()), e.getMessage());
+            }
+        }
+    }
+
+    private void processUser(BulkOperation operation, Set<String> existingLogins, Set<String> existingIds) {
+        String id = resourceId(operation);
+        switch (operation.getMethod()) {
+            case POST -> {
+                ScimUser scimUser = (ScimUser) operation.getData();
+                if (!existingLogins.add(scimUser.getUserName()) || existingIds.contains(scimUser.getExternalId())) {
+                    fail(operation, Status.CONFLICT, "User '" + scimUser.getUserName() + "' already exists.");
+                    return;
+                }
+                scimUser.setId(scimUser.getExternalId());
+                scimUserService.insertUser(scimUser);
+                existingIds.add(scimUser.getId());
+                succeed(operation, Status.CREATED, USERS, scimUser.getId());
+            }
+            case PUT -> {
+                if (!existingIds.contains(id)) {
+                    fail(operation, Status.NOT_FOUND, "User '" + id + "' not found.");
+                    return;
+                }
+                ScimUser scimUser = (ScimUser) operation.getData();
+                // the external id is the id of the stored user, it can't point the update to another one
+                if (scimUser.getExternalId() != null && !scimUser.getExternalId().equals(id)) {
+                    fail(operation, Status.BAD_REQUEST, "externalId '" + scimUser.getExternalId() + "' doesn't match user '" + id + "'.");
+                    return;
+                }
+                scimUser.setId(id);
+                scimUser.setExternalId(id);
+                scimUserService.updateUser(scimUser);
+                succeed(operation, Status.OK, USERS, id);
+            }
+            case DELETE -> {
+                if (!existingIds.remove(id)) {
+                    fail(operation, Status.NOT_FOUND, "User '" + id + "' not found.");
+                    return;
+                }
+                scimUserService.delete(id);
+                succeed(operation, Status.NO_CONTENT, USERS, id);
+            }
+            default -> fail(operation, Status.NOT_IMPLEMENTED, "Unsupported method: " + operation.getMethod());
+        }
+    }
+
+    private void processGroup(BulkOperation operation) throws ResourceException {
+        switch (operation.getMethod()) {
+            case POST -> {
+                ScimGroup scimGroup = scimGroupService.createOrUpdateGroup((ScimGroup) operation.getData());
+                succeed(operation, Status.CREATED, GROUPS, scimGroup.getId());
+            }
+            case PUT -> {
+                ScimGroup scimGroup = (ScimGroup) operation.getData();
+                scimGroup.setDisplayName(resourceId(operation));
+                scimGroupService.createOrUpdateGroup(scimGroup);
+                succeed(operation, Status.OK, GROUPS, scimGroup.getId());
+            }
+            case DELETE -> {
+                scimGroupService.delete(resourceId(operation));
+                succeed(operation, Status.NO_CONTENT, GROUPS, resourceId(operation));
+            }
+            default -> fail(operation, Status.NOT_IMPLEMENTED, "Unsupported method: " + operation.getMethod());
+        }
+    }
+
+    private String resourceType(BulkOperation operation) {
+        String[] segments = pathSegments(operation);
+        return segments.length > 0 ? segments[0] : "";
+    }
+
+    private String resourceId(BulkOperation operation) {
+        String[] segments = pathSegments(operation);
+        return segments.length > 1 ? segments[1] : null;
+    }
+
+    private String[] pathSegments(BulkOperation operation) {
+        String path = operation.getPath() != null ? operation.getPath() : "";
+        return path.replaceFirst("^/", "").split("/");
+    }
+
+    private void succeed(BulkOperation operation, Status status, String resourceType, String id) {
+        operation.setStatus(BulkOperation.StatusWrapper.wrap(status));
+        operation.setLocation("/" + resourceType + "/" + id);
+        operation.setData(null);
+    }
+
+    private void fail(BulkOperation operation, Status status, String detail) {
+        operation.setStatus(BulkOperation.StatusWrapper.wrap(status));
+        operation.setResponse(new ErrorResponse(status, detail));
+        operation.setData(null);
+    }
+}
@@ -1,41 +1,79 @@
 package com.okta.developer.security.oauth2;
 
 import com.okta.developer.domain.Authority;
-import com.okta.developer.domain.User;
 import com.okta.developer.repository.AuthorityRepository;
 import com.okta.developer.repository.UserRepository;
+import com.okta.developer.repository.UserRepository.AuthorityMember;
+import com.okta.developer.repository.UserRepository.UserIdentity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.directory.scim.core.repository.Repository;
 import org.apache.directory.scim.core.repository.UpdateRequest;
-import org.apache.directory.scim.core.schema.SchemaRegistry;
 import org.apache.directory.scim.spec.exception.ResourceException;
+import org.apache.directory.scim.spec.filter.AttributeComparisonExpression;
+import org.apache.directory.scim.spec.filter.CompareOperator;
 import org.apache.directory.scim.spec.filter.Filter;
-import org.apache.directory.scim.spec.filter.FilterExpressions;
+import org.apache.directory.scim.spec.filter.FilterExpression;
 import org.apache.directory.scim.spec.filter.FilterResponse;
+import org.apache.directory.scim.spec.filter.GroupExpression;
+import org.apache.directory.scim.spec.filter.LogicalExpression;
+import org.apache.directory.scim.spec.filter.LogicalOperator;
 import org.apache.directory.scim.spec.filter.PageRequest;
 import org.apache.directory.scim.spec.filter.SortRequest;
+import org.apache.directory.scim.spec.filter.ValuePathExpression;
+import org.apache.directory.scim.spec.filter.attribute.AttributeReference;
+import org.apache.directory.scim.spec.patch.PatchOperation;
 import org.apache.directory.scim.spec.resources.ScimGroup;
+import org.apache.directory.scim.spec.schema.ResourceReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class ScimGroupService implements Repository<ScimGroup> {
 
+    private static final String MEMBERS_ATTRIBUTE = "members";
+
+    /**
+     * Number of member ids per {@code in} list, a power of two as {@code hibernate.query.in_clause_parameter_padding} pads to one.
+     */
+    private static final int MEMBER_CHUNK_SIZE = 512;
+
     private final Logger log = LoggerFactory.getLogger(ScimGroupService.class);
 
+    /**
+     * SCIM {@link ScimGroup} attributes that can be filtered and sorted on, mapped to {@link Authority} properties.
+     */
+    private static final ScimQueryTranslator<Authority> QUERY_TRANSLATOR = new ScimQueryTranslator<>(
+        Authority.class,
+        Map.of("id", "name", "externalid", "name", "displayname", "name"),
+        Set.of("displayname"),
+        "name"
+    );
+
     private final AuthorityRepository authorityRepository;
 
     private final UserRepository userRepository;
 
-    private final SchemaRegistry schemaRegistry;
+    private final AuthorityRegistry authorityRegistry;
+
+    private final UserCacheEvictor userCacheEvictor;
+
+    private final EntityManager entityManager;
+
+    private final MeterRegistry meterRegistry;
 
-    private final CacheManager cacheManager;
+    private final Timer countTimer;
 
     @Override
     public Class<ScimGroup> getResourceClass() {
@@ -45,13 +83,18 @@ public class ScimGroupService implements Repository<ScimGroup> {
     public ScimGroupService(
         AuthorityRepository authorityRepository,
         UserRepository userRepository,
-        SchemaRegistry schemaRegistry,
-        CacheManager cacheManager
+        AuthorityRegistry authorityRegistry,
+        UserCacheEvictor userCacheEvictor,
+        EntityManager entityManager,
+        MeterRegistry meterRegistry
     ) {
         this.authorityRepository = authorityRepository;
         this.userRepository = userRepository;
-        this.schemaRegistry = schemaRegistry;
-        this.cacheManager = cacheManager;
+        this.authorityRegistry = authorityRegistry;
+        this.userCacheEvictor = userCacheEvictor;
+        this.entityManager = entityManager;
+        this.meterRegistry = meterRegistry;
+        this.countTimer = ScimQueryTranslator.countTimer(meterRegistry, "Group");
     }
 
     @Override
@@ -60,84 +103,305 @@ public class ScimGroupService implements Repository<ScimGroup> {
         return createOrUpdateGroup(scimGroup);
     }
 
+    /**
+     * Applies the patch operations of the request on the group members with set-based statements, SCIMple derives them
+     * from the resource for a {@code PUT}. The group is replaced when an operation targets another attribute.
+     */
     @Override
     @Transactional
     public ScimGroup update(UpdateRequest<ScimGroup> updateRequest) throws ResourceException {
-        log.debug("todo: updating {}", updateRequest.toString());
+        List<PatchOperation> operations = updateRequest.getPatchOperations();
+        if (operations.isEmpty() || !operations.stream().allMatch(ScimGroupService::isMembersOperation)) {
+            log.debug("Replacing group {}", updateRequest.getId());
+            return createOrUpdateGroup(updateRequest.getResource());
+        }
 
-        return createOrUpdateGroup(updateRequest.getResource());
+        log.debug("Patching group {}", updateRequest.getId());
+        for (PatchOperation operation : operations) {
+            patchMembers(updateRequest.getId(), operation);
+        }
+        // the members were loaded by SCIMple before the update, they aren't loaded again
+        return toScimGroups(List.of(updateRequest.getId()), false).get(0);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ScimGroup get(String s) throws ResourceException {
         log.debug("get() with {}", s);
-        return authorityRepository.findByName(s).map(authority -> toScimGroup(authority.getName())).orElse(null);
+        boolean includeMembers = ScimRequestedAttributes.isReturned(MEMBERS_ATTRIBUTE);
+        return authorityRepository
+            .findByName(s)
+            .map(authority -> toScimGroups(List.of(authority.getName()), includeMembers).get(0))
+            .orElse(null);
     }
 
     @Override
-    public FilterResponse<ScimGroup> find(Filter filter, PageRequest pageRequest, SortRequest sortRequest) {
+    @Transactional(readOnly = true)
+    public FilterResponse<ScimGroup> find(Filter filter, PageRequest pageRequest, SortRequest sortRequest) throws ResourceException {
         log.debug("filter: {}, page: {}, sort: {}", filter, pageRequest, sortRequest);
-        // todo: use filters and paging/sorting
 
-        long count = pageRequest.getCount() != null ? pageRequest.getCount() : authorityRepository.count();
-        long startIndex = pageRequest.getStartIndex() != null
-            ? pageRequest.getStartIndex() - 1 // SCIM is 1-based indexed
-            : 0;
+        List<ScimGroup> result;
+        long total;
+        try {
+            List<String> names = QUERY_TRANSLATOR
+                .find(entityManager, filter, pageRequest, sortRequest)
+                .stream()
+                .map(Authority::getName)
+                .toList();
+            result = toScimGroups(names, ScimRequestedAttributes.isReturned(MEMBERS_ATTRIBUTE));
+            total = QUERY_TRANSLATOR.totalFromPage(pageRequest, result.size()).orElseGet(() -> count(filter));
+        } catch (IllegalArgumentException e) {
+            throw new ResourceException(Response.Status.BAD_REQUEST.getStatusCode(), e.getMessage());
+        }
 
-        List<ScimGroup> result = authorityRepository
-            .findAll()
-            .stream()
-            .map(authority -> toScimGroup(authority.getName()))
-            .skip(startIndex)
-            .limit(count)
-            .filter(FilterExpressions.inMemory(filter, schemaRegistry.getSchema(ScimGroup.SCHEMA_URI)))
-            .collect(Collectors.toList());
+        return new FilterResponse<>(result, pageRequest, Math.toIntExact(total));
+    }
 
-        return new FilterResponse<>(result, pageRequest, result.size());
+    private long count(Filter filter) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return QUERY_TRANSLATOR.count(entityManager, filter);
+        } finally {
+            sample.stop(countTimer);
+        }
     }
 
     @Override
+    @Transactional
     public void delete(String s) throws ResourceException {
+        List<String> memberIds = userRepository
+            .findAuthorityMembersByAuthorityNameIn(List.of(s))
+            .stream()
+            .map(AuthorityMember::getUserId)
+            .toList();
         authorityRepository.delete(new Authority(s));
+        authorityRegistry.evict(s);
+        userCacheEvictor.evictAuthority(s);
+        clearUserCachesById(memberIds);
     }
 
-    private ScimGroup createOrUpdateGroup(ScimGroup scimGroup) {
+    /**
+     * Saves the group and adds its members to it. Members are resolved and linked in chunks of
+     * {@link #MEMBER_CHUNK_SIZE}, with one select and one insert per chunk.
+     *
+     * @param scimGroup the group to save.
+     * @return the saved group.
+     */
+    ScimGroup createOrUpdateGroup(ScimGroup scimGroup) {
         String groupId = scimGroup.getDisplayName();
         scimGroup.setId(groupId);
-        authorityRepository.save(new Authority(groupId));
-
-        scimGroup
-            .getMembers()
-            .forEach(memberRef -> {
-                // Assume these are always userIds, but per spec they could be groupIds (Okta only supports users here)
-                String id = memberRef.getValue();
-                Optional<User> optionalUser = userRepository.findById(id);
-                optionalUser.ifPresentOrElse(
-                    user -> {
-                        user.getAuthorities().add(new Authority(groupId));
-                        userRepository.save(user);
-                        clearUserCaches(user);
-                    },
-                    () -> log.warn("User {}, was not found, could not assign group: {}", id, groupId)
-                );
-            });
+        authorityRegistry.ensureExists(List.of(groupId));
+        if (scimGroup.getMembers() == null) {
+            return scimGroup;
+        }
+
+        // Assume these are always userIds, but per spec they could be groupIds (Okta only supports users here)
+        List<String> memberIds = scimGroup.getMembers().stream().map(ResourceReference::getValue).distinct().toList();
+        List<UserIdentity> members = new ArrayList<>(memberIds.size());
+        for (List<String> chunk : chunks(memberIds)) {
+            List<UserIdentity> users = userRepository.findIdentitiesByIdIn(chunk);
+            if (users.size() < chunk.size()) {
+                Set<String> found = users.stream().map(UserIdentity::getId).collect(Collectors.toSet());
+                chunk
+                    .stream()
+                    .filter(id -> !found.contains(id))
+                    .forEach(id -> log.warn("User {}, was not found, could not assign group: {}", id, groupId));
+            }
+            if (!users.isEmpty()) {
+                authorityRepository.addMembers(groupId, users.stream().map(UserIdentity::getId).toList());
+                members.addAll(users);
+            }
+        }
+        clearUserCaches(members);
 
         return scimGroup;
     }
 
-    private void clearUserCaches(User user) {
-        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
-        if (user.getEmail() != null) {
-            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
+    private static boolean isMembersOperation(PatchOperation operation) {
+        if (operation.getPath() == null) {
+            // no path, the value holds the attributes to patch
+            return operation.getValue() instanceof Map<?, ?>;
         }
+        ValuePathExpression valuePath = operation.getPath().getValuePathExpression();
+        return valuePath != null && MEMBERS_ATTRIBUTE.equalsIgnoreCase(valuePath.getAttributePath().getAttributeName());
     }
 
-    private ScimGroup toScimGroup(String name) {
-        ScimGroup scimGroup = new ScimGroup();
-        scimGroup.setId(name);
-        scimGroup.setDisplayName(name);
+    /**
+     * Applies a patch operation on the group members with set-based statements on {@code jhi_user_authority}, so its cost
+     * depends on the number of patched members, not on the size of the group. Other attributes can't be patched, as
+     * the group id is its display name.
+     */
+    private void patchMembers(String groupId, PatchOperation operation) throws ResourceException {
+        Object value = operation.getValue();
+        if (operation.getPath() == null && value instanceof Map<?, ?> attributes) {
+            // no path, the value holds the attributes to patch
+            if (attributes.containsKey(MEMBERS_ATTRIBUTE)) {
+                patchMembers(groupId, operation.getOperation(), memberIds(attributes.get(MEMBERS_ATTRIBUTE)));
+            }
+            return;
+        }
+
+        ValuePathExpression valuePath = operation.getPath() != null ? operation.getPath().getValuePathExpression() : null;
+        if (valuePath == null || !MEMBERS_ATTRIBUTE.equalsIgnoreCase(valuePath.getAttributePath().getAttributeName())) {
+            throw new ResourceException(Response.Status.BAD_REQUEST.getStatusCode(), "Only group members can be patched");
+        }
+        Set<String> userIds = memberIds(value);
+        FilterExpression filter = valuePath.getAttributeExpression();
+        if (filter != null) {
+            // e.g. members[value eq "id" or value eq "other"]
+            collectMemberIds(filter, userIds);
+        } else if (operation.getOperation() == PatchOperation.Type.REMOVE && userIds.isEmpty()) {
+            // a bare members path removes all members
+            patchMembers(groupId, PatchOperation.Type.REPLACE, userIds);
+            return;
+        }
+        patchMembers(groupId, operation.getOperation(), userIds);
+    }
 
-        // TODO add group members
-        return scimGroup;
+    private void patchMembers(String groupId, PatchOperation.Type type, Set<String> userIds) {
+        Set<String> added = new HashSet<>();
+        Set<String> removed = new HashSet<>();
+        switch (type) {
+            case ADD -> added.addAll(userIds);
+            case REMOVE -> removed.addAll(userIds);
+            case REPLACE -> {
+                Set<String> existing = userRepository
+                    .findAuthorityMembersByAuthorityNameIn(List.of(groupId))
+                    .stream()
+                    .map(AuthorityMember::getUserId)
+                    .collect(Collectors.toSet());
+                userIds.stream().filter(id -> !existing.contains(id)).forEach(added::add);
+                existing.stream().filter(id -> !userIds.contains(id)).forEach(removed::add);
+            }
+        }
+        if (!added.isEmpty()) {
+            authorityRegistry.ensureExists(List.of(groupId));
+            int count = 0;
+            for (List<String> chunk : chunks(added)) {
+                count += authorityRepository.addMembers(groupId, chunk);
+            }
+            log.debug("Added {} members to group {}", count, groupId);
+        }
+        int count = 0;
+        for (List<String> chunk : chunks(removed)) {
+            count += authorityRepository.removeMembers(groupId, chunk);
+        }
+        if (count > 0) {
+            log.debug("Removed {} members from group {}", count, groupId);
+        }
+        added.addAll(removed);
+        clearUserCachesById(added);
+    }
+
+    private static Set<String> memberIds(Object value) {
+        Set<String> userIds = new HashSet<>();
+        if (value instanceof Collection<?> members) {
+            members.forEach(member -> userIds.addAll(memberIds(member)));
+        } else if (value instanceof ResourceReference member) {
+            userIds.add(member.getValue());
+        } else if (value instanceof Map<?, ?> member && member.get("value") != null) {
+            userIds.add(member.get("value").toString());
+        } else if (value instanceof String memberId) {
+            userIds.add(memberId);
+        }
+        return userIds;
+    }
+
+    /**
+     * Collects the member ids of a {@code members} filter. Only {@code value eq} comparisons combined with {@code or}
+     * select members by id, any other filter would have to be evaluated against the members of the group.
+     *
+     * @throws ResourceException with a 400 status if the filter isn't made of {@code value eq} comparisons.
+     */
+    private static void collectMemberIds(FilterExpression expression, Set<String> userIds) throws ResourceException {
+        if (expression instanceof AttributeComparisonExpression comparison && isValueEquals(comparison)) {
+            userIds.add(String.valueOf(comparison.getCompareValue()));
+        } else if (expression instanceof LogicalExpression logical && logical.getOperator() == LogicalOperator.OR) {
+            collectMemberIds(logical.getLeft(), userIds);
+            collectMemberIds(logical.getRight(), userIds);
+        } else if (expression instanceof GroupExpression group && !group.isNot()) {
+            collectMemberIds(group.getFilterExpression(), userIds);
+        } else {
+            throw new ResourceException(
+                Response.Status.BAD_REQUEST.getStatusCode(),
+                "Only members filtered by value eq, combined with or, can be patched"
+            );
+        }
+    }
+
+    private static boolean isValueEquals(AttributeComparisonExpression comparison) {
+        AttributeReference reference = comparison.getAttributePath();
+        // the attribute of a value path filter may be qualified by the multi-valued attribute, e.g. members.value
+        String attribute = reference.getSubAttributeName() != null ? reference.getSubAttributeName() : reference.getAttributeName();
+        return (
+            comparison.getOperation() == CompareOperator.EQ &&
+            "value".equalsIgnoreCase(attribute) &&
+            comparison.getCompareValue() != null
+        );
+    }
+
+    private void clearUserCachesById(Collection<String> userIds) {
+        List<UserIdentity> users = new ArrayList<>(userIds.size());
+        for (List<String> chunk : chunks(userIds)) {
+            users.addAll(userRepository.findIdentitiesByIdIn(chunk));
+        }
+        if (!users.isEmpty()) {
+            clearUserCaches(users);
+        }
+    }
+
+    /**
+     * Splits member ids in chunks of {@link #MEMBER_CHUNK_SIZE}, all the members of a large group in one {@code in} list
+     * would exceed the bind parameter limit of the database.
+     */
+    private static List<List<String>> chunks(Collection<String> ids) {
+        List<String> list = List.copyOf(ids);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += MEMBER_CHUNK_SIZE) {
+            chunks.add(list.subList(i, Math.min(i + MEMBER_CHUNK_SIZE, list.size())));
+        }
+        return chunks;
+    }
+
+    private void clearUserCaches(List<UserIdentity> users) {
+        userCacheEvictor.evictAll(
+            users.stream().map(UserIdentity::getId).toList(),
+            users.stream().map(UserIdentity::getLogin).toList(),
+            users.stream().map(UserIdentity::getEmail).toList()
+        );
+    }
+
+    /**
+     * Converts a page of authorities to groups, loading the members of all of them with a single query when they are
+     * included.
+     */
+    private List<ScimGroup> toScimGroups(List<String> names, boolean includeMembers) {
+        Map<String, List<ResourceReference>> members = includeMembers && !names.isEmpty()
+            ? userRepository
+                .findAuthorityMembersByAuthorityNameIn(names)
+                .stream()
+                .collect(
+                    Collectors.groupingBy(
+                        AuthorityMember::getAuthorityName,
+                        Collectors.mapping(
+                            member -> new ResourceReference().setValue(member.getUserId()).setDisplay(member.getLogin()),
+                            Collectors.toList()
+                        )
+                    )
+                )
+            : null;
+
+        return names
+            .stream()
+            .map(name -> {
+                ScimGroup scimGroup = new ScimGroup();
+                scimGroup.setId(name);
+                scimGroup.setDisplayName(name);
+                if (members != null) {
+                    scimGroup.setMembers(members.getOrDefault(name, new ArrayList<>()));
+                }
+                return scimGroup;
+            })
+            .toList();
     }
 }
@@ -0,0 +1,295 @@
+package com.okta.developer.security.oauth2;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.AbstractQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Function;
+import org.apache.directory.scim.spec.filter.AttributeComparisonExpression;
+import org.apache.directory.scim.spec.filter.AttributePresentExpression;
+import org.apache.directory.scim.spec.filter.CompareOperator;
+import org.apache.directory.scim.spec.filter.Filter;
+import org.apache.directory.scim.spec.filter.FilterExpression;
+import org.apache.directory.scim.spec.filter.GroupExpression;
+import org.apache.directory.scim.spec.filter.LogicalExpression;
+import org.apache.directory.scim.spec.filter.LogicalOperator;
+import org.apache.directory.scim.spec.filter.PageRequest;
+import org.apache.directory.scim.spec.filter.SortOrder;
+import org.apache.directory.scim.spec.filter.SortRequest;
+import org.apache.directory.scim.spec.filter.ValuePathExpression;
+import org.apache.directory.scim.spec.filter.attribute.AttributeReference;
+
+/**
+ * Translates SCIM filters, paging and sorting into JPA criteria queries, so they are evaluated by the database
+ * instead of in memory.
+ * <p>
+ * SCIM attribute names are case-insensitive, they are mapped to entity property paths with {@code attributePaths},
+ * where a dotted path (for example {@code authorities.name}) maps a multi-valued attribute through an association. A
+ * multi-valued attribute matches when any of its values does, each comparison on it is an {@code EXISTS} subquery so
+ * the rows without values are kept and {@code or} and {@code not} keep their meaning. It can't be sorted on. The
+ * attributes that are not {@code caseExact} in the SCIM schema are compared in lower case. Dates compared with a string are parsed as
+ * ISO instants.
+ *
+ * @param <T> the entity type the SCIM resource is stored as.
+ */
+class ScimQueryTranslator<T> {
+
+    private final Class<T> entityClass;
+
+    private final Map<String, String> attributePaths;
+
+    private final Set<String> caseInsensitiveAttributes;
+
+    private final String defaultSortProperty;
+
+    ScimQueryTranslator(
+        Class<T> entityClass,
+        Map<String, String> attributePaths,
+        Set<String> caseInsensitiveAttributes,
+        String defaultSortProperty
+    ) {
+        this.entityClass = entityClass;
+        this.attributePaths = attributePaths;
+        this.caseInsensitiveAttributes = caseInsensitiveAttributes;
+        this.defaultSortProperty = defaultSortProperty;
+    }
+
+    /**
+     * Creates the timer recording the {@code COUNT} queries run to report {@code totalResults} for a SCIM resource type.
+     *
+     * @param meterRegistry the registry to register the timer with.
+     * @param resourceType the SCIM resource type, e.g. {@code User}.
+     * @return the timer.
+     */
+    static Timer countTimer(MeterRegistry meterRegistry, String resourceType) {
+        return Timer
+            .builder("scim.query.count")
+            .description("Time taken to count the SCIM resources matching a filter")
+            .tag("resource", resourceType)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Runs a single query returning the requested page of entities matching the filter.
+     *
+     * @param entityManager the entity manager to query with.
+     * @param filter the SCIM filter, may be {@code null}.
+     * @param pageRequest the SCIM page request, its {@code startIndex} is 1-based.
+     * @param sortRequest the SCIM sort request, may be {@code null}.
+     * @return the matching entities.
+     * @throws IllegalArgumentException if the filter or sort references an unsupported attribute or operator, or if the sort is on
+     * a multi-valued attribute.
+     */
+    List<T> find(EntityManager entityManager, Filter filter, PageRequest pageRequest, SortRequest sortRequest) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(entityClass);
+        Root<T> root = query.from(entityClass);
+        query.select(root);
+        if (filter != null && filter.getExpression() != null) {
+            query.where(toPredicate(filter.getExpression(), root, query, cb));
+        }
+        query.orderBy(toOrder(sortRequest, root, cb));
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query);
+        if (pageRequest != null) {
+            if (pageRequest.getStartIndex() != null && pageRequest.getStartIndex() > 1) {
+                typedQuery.setFirstResult(pageRequest.getStartIndex() - 1); // SCIM is 1-based indexed
+            }
+            if (pageRequest.getCount() != null) {
+                typedQuery.setMaxResults(Math.max(pageRequest.getCount(), 0));
+            }
+        }
+        return typedQuery.getResultList();
+    }
+
+    /**
+     * Runs a {@code COUNT} query with the same predicates as {@link #find(EntityManager, Filter, PageRequest, SortRequest)}.
+     *
+     * @param entityManager the entity manager to query with.
+     * @param filter the SCIM filter, may be {@code null}.
+     * @return the number of entities matching the filter.
+     * @throws IllegalArgumentException if the filter references an unsupported attribute or operator.
+     */
+    long count(EntityManager entityManager, Filter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entityClass);
+        if (filter != null && filter.getExpression() != null) {
+            query.where(toPredicate(filter.getExpression(), root, query, cb));
+        }
+        query.select(cb.count(root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Derives the total number of results from a page when it is not full, so no {@code COUNT} query is needed.
+     *
+     * @param pageRequest the SCIM page request the page was loaded with.
+     * @param pageSize the number of results on the page.
+     * @return the total number of results, or empty if the page is full and the total is unknown.
+     */
+    OptionalLong totalFromPage(PageRequest pageRequest, int pageSize) {
+        int offset = pageRequest != null && pageRequest.getStartIndex() != null ? Math.max(pageRequest.getStartIndex() - 1, 0) : 0;
+        Integer count = pageRequest != null ? pageRequest.getCount() : null;
+        if (count == null || (pageSize > 0 || offset == 0) && pageSize < count) {
+            return OptionalLong.of((long) offset + pageSize);
+        }
+        return OptionalLong.empty();
+    }
+
+    private Order toOrder(SortRequest sortRequest, Root<T> root, CriteriaBuilder cb) {
+        if (sortRequest == null || sortRequest.getSortBy() == null) {
+            return cb.asc(root.get(defaultSortProperty));
+        }
+        String[] segments = propertySegments(sortRequest.getSortBy());
+        if (segments.length > 1) {
+            throw new IllegalArgumentException("Unsupported sort on multi-valued attribute: " + attributeName(sortRequest.getSortBy()));
+        }
+        Path<?> path = root.get(segments[0]);
+        return sortRequest.getSortOrder() == SortOrder.DESCENDING ? cb.desc(path) : cb.asc(path);
+    }
+
+    private Predicate toPredicate(FilterExpression expression, Root<T> root, AbstractQuery<?> query, CriteriaBuilder cb) {
+        if (expression instanceof AttributeComparisonExpression comparison) {
+            return matchAny(comparison.getAttributePath(), root, query, cb, path -> toPredicate(comparison, path, cb));
+        }
+        if (expression instanceof LogicalExpression logical) {
+            Predicate left = toPredicate(logical.getLeft(), root, query, cb);
+            Predicate right = toPredicate(logical.getRight(), root, query, cb);
+            return logical.getOperator() == LogicalOperator.OR ? cb.or(left, right) : cb.and(left, right);
+        }
+        if (expression instanceof GroupExpression group) {
+            Predicate predicate = toPredicate(group.getFilterExpression(), root, query, cb);
+            return group.isNot() ? cb.not(predicate) : predicate;
+        }
+        if (expression instanceof AttributePresentExpression present) {
+            return matchAny(present.getAttributePath(), root, query, cb, cb::isNotNull);
+        }
+        if (expression instanceof ValuePathExpression valuePath) {
+            return toPredicate(valuePath.getAttributeExpression(), root, query, cb);
+        }
+        throw new IllegalArgumentException("Unsupported filter expression: " + expression.getClass().getSimpleName());
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Predicate toPredicate(AttributeComparisonExpression comparison, Path path, CriteriaBuilder cb) {
+        Object value = toValue(path, comparison.getCompareValue());
+        if (value instanceof String text && isCaseInsensitive(comparison.getAttributePath())) {
+            Expression<String> lowerPath = cb.lower(path.as(String.class));
+            String lowerText = text.toLowerCase(Locale.ROOT);
+            if (comparison.getOperation() == CompareOperator.EQ) {
+                return cb.equal(lowerPath, lowerText);
+            }
+            if (comparison.getOperation() == CompareOperator.NE) {
+                return cb.notEqual(lowerPath, lowerText);
+            }
+        }
+        return switch (comparison.getOperation()) {
+            case EQ -> value == null ? cb.isNull(path) : cb.equal(path, value);
+            case NE -> value == null ? cb.isNotNull(path) : cb.notEqual(path, value);
+            case CO -> like(path, "%" + escape(value) + "%", cb);
+            case SW -> like(path, escape(value) + "%", cb);
+            case EW -> like(path, "%" + escape(value), cb);
+            case GT -> cb.greaterThan(path, (Comparable) value);
+            case GE -> cb.greaterThanOrEqualTo(path, (Comparable) value);
+            case LT -> cb.lessThan(path, (Comparable) value);
+            case LE -> cb.lessThanOrEqualTo(path, (Comparable) value);
+            default -> throw new IllegalArgumentException("Unsupported filter operator: " + comparison.getOperation());
+        };
+    }
+
+    /**
+     * Converts a compare value to the type of the property, the filter parser returns dates as strings or {@link Date}.
+     */
+    private static Object toValue(Path<?> path, Object value) {
+        Class<?> type = path.getJavaType();
+        try {
+            if (type == Instant.class && value instanceof String text) {
+                return Instant.parse(text);
+            }
+            if (type == Instant.class && value instanceof Date date) {
+                return date.toInstant();
+            }
+            if (type == ZonedDateTime.class && value instanceof String text) {
+                return ZonedDateTime.parse(text);
+            }
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+        return value;
+    }
+
+    private boolean isCaseInsensitive(AttributeReference reference) {
+        return caseInsensitiveAttributes.contains(attributeName(reference).toLowerCase(Locale.ROOT));
+    }
+
+    private Predicate like(Path<?> path, String pattern, CriteriaBuilder cb) {
+        Expression<String> value = cb.lower(path.as(String.class));
+        return cb.like(value, pattern.toLowerCase(Locale.ROOT), '\\');
+    }
+
+    private static String escape(Object value) {
+        return String.valueOf(value).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String attributeName(AttributeReference reference) {
+        String attribute = reference.getAttributeName();
+        if (reference.getSubAttributeName() != null) {
+            attribute = attribute + "." + reference.getSubAttributeName();
+        }
+        return attribute;
+    }
+
+    private String[] propertySegments(AttributeReference reference) {
+        String attribute = attributeName(reference);
+        String property = attributePaths.get(attribute.toLowerCase(Locale.ROOT));
+        if (property == null) {
+            throw new IllegalArgumentException("Unsupported attribute: " + attribute);
+        }
+        return property.split("\\.");
+    }
+
+    /**
+     * Applies a condition on the property an attribute is mapped to. The condition on a multi-valued attribute is applied
+     * in a subquery correlated to the root, instead of on a join of the root that would filter out the rows without values.
+     */
+    private Predicate matchAny(
+        AttributeReference reference,
+        Root<T> root,
+        AbstractQuery<?> query,
+        CriteriaBuilder cb,
+        Function<Path<?>, Predicate> condition
+    ) {
+        String[] segments = propertySegments(reference);
+        if (segments.length == 1) {
+            return condition.apply(root.get(segments[0]));
+        }
+
+        Subquery<Integer> subquery = query.subquery(Integer.class);
+        From<?, ?> from = subquery.correlate(root);
+        for (int i = 0; i < segments.length - 1; i++) {
+            from = from.join(segments[i]);
+        }
+        subquery.select(cb.literal(1)).where(condition.apply(from.get(segments[segments.length - 1])));
+        return cb.exists(subquery);
+    }
+}
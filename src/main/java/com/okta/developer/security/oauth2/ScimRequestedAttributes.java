@@ -0,0 +1,56 @@
+package com.okta.developer.security.oauth2;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The {@code attributes} and {@code excludedAttributes} parameters of the SCIM {@code GET} request handled by the
+ * current thread, so the SCIM services only load the attributes that are returned. They are set and cleared by the JAX-RS
+ * filter of the SCIM endpoints, other callers (bulk requests, services) get every attribute.
+ */
+public final class ScimRequestedAttributes {
+
+    private static final ThreadLocal<ScimRequestedAttributes> CURRENT = new ThreadLocal<>();
+
+    private final String attributes;
+
+    private final String excludedAttributes;
+
+    private ScimRequestedAttributes(String attributes, String excludedAttributes) {
+        this.attributes = attributes;
+        this.excludedAttributes = excludedAttributes;
+    }
+
+    public static void set(String attributes, String excludedAttributes) {
+        CURRENT.set(new ScimRequestedAttributes(attributes, excludedAttributes));
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Checks if an attribute is returned by the current request.
+     *
+     * @param attribute the lower case name of the attribute.
+     * @return {@code true} unless the request excludes the attribute or only includes other ones.
+     */
+    static boolean isReturned(String attribute) {
+        ScimRequestedAttributes current = CURRENT.get();
+        if (current == null) {
+            return true;
+        }
+        if (current.excludedAttributes != null && contains(current.excludedAttributes, attribute)) {
+            return false;
+        }
+        return current.attributes == null || contains(current.attributes, attribute);
+    }
+
+    private static boolean contains(String attributes, String attribute) {
+        return Arrays
+            .stream(attributes.split(","))
+            // strip the schema URN, e.g. urn:ietf:params:scim:schemas:core:2.0:Group:members
+            .map(name -> name.substring(name.lastIndexOf(':') + 1).trim().toLowerCase(Locale.ROOT))
+            .anyMatch(name -> name.equals(attribute) || name.startsWith(attribute + "."));
+    }
+}
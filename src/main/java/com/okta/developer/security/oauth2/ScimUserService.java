@@ -1,23 +1,23 @@
 package com.okta.developer.security.oauth2;
 
 import com.okta.developer.config.Constants;
-import com.okta.developer.domain.Authority;
 import com.okta.developer.domain.User;
-import com.okta.developer.repository.AuthorityRepository;
 import com.okta.developer.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
 import jakarta.ws.rs.core.Response;
 import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 import org.apache.directory.scim.core.repository.Repository;
 import org.apache.directory.scim.core.repository.UpdateRequest;
-import org.apache.directory.scim.core.schema.SchemaRegistry;
 import org.apache.directory.scim.server.exception.UnableToCreateResourceException;
 import org.apache.directory.scim.server.exception.UnableToUpdateResourceException;
+import org.apache.directory.scim.spec.exception.ResourceException;
 import org.apache.directory.scim.spec.filter.Filter;
-import org.apache.directory.scim.spec.filter.FilterExpressions;
 import org.apache.directory.scim.spec.filter.FilterResponse;
 import org.apache.directory.scim.spec.filter.PageRequest;
 import org.apache.directory.scim.spec.filter.SortRequest;
@@ -28,30 +28,63 @@ import org.apache.directory.scim.spec.resources.ScimUser;
 import org.apache.directory.scim.spec.schema.ResourceReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class ScimUserService implements Repository<ScimUser> {
 
     private final Logger log = LoggerFactory.getLogger(ScimUserService.class);
 
-    private final SchemaRegistry schemaRegistry;
+    /**
+     * SCIM {@link ScimUser} attributes that can be filtered and sorted on, mapped to {@link User} properties.
+     */
+    private static final ScimQueryTranslator<User> QUERY_TRANSLATOR = new ScimQueryTranslator<>(
+        User.class,
+        Map.ofEntries(
+            Map.entry("id", "id"),
+            Map.entry("externalid", "id"),
+            Map.entry("username", "login"),
+            Map.entry("name.givenname", "firstName"),
+            Map.entry("name.familyname", "lastName"),
+            Map.entry("emails", "email"),
+            Map.entry("emails.value", "email"),
+            Map.entry("active", "activated"),
+            Map.entry("locale", "langKey"),
+            Map.entry("profileurl", "imageUrl"),
+            Map.entry("groups", "authorities.name"),
+            Map.entry("groups.value", "authorities.name"),
+            Map.entry("meta.created", "createdDate"),
+            Map.entry("meta.lastmodified", "lastModifiedDate")
+        ),
+        Set.of("username", "name.givenname", "name.familyname", "emails", "emails.value", "locale", "profileurl"),
+        "id"
+    );
+
     private final UserRepository userRepository;
 
-    private final AuthorityRepository authorityRepository;
-    private final CacheManager cacheManager;
+    private final AuthorityRegistry authorityRegistry;
+    private final UserCacheEvictor userCacheEvictor;
+
+    private final EntityManager entityManager;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer countTimer;
 
     public ScimUserService(
-        SchemaRegistry schemaRegistry,
         UserRepository userRepository,
-        AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        AuthorityRegistry authorityRegistry,
+        UserCacheEvictor userCacheEvictor,
+        EntityManager entityManager,
+        MeterRegistry meterRegistry
     ) {
-        this.schemaRegistry = schemaRegistry;
         this.userRepository = userRepository;
-        this.authorityRepository = authorityRepository;
-        this.cacheManager = cacheManager;
+        this.authorityRegistry = authorityRegistry;
+        this.userCacheEvictor = userCacheEvictor;
+        this.entityManager = entityManager;
+        this.meterRegistry = meterRegistry;
+        this.countTimer = ScimQueryTranslator.countTimer(meterRegistry, "User");
     }
 
     @Override
@@ -63,6 +96,7 @@ public class ScimUserService implements Repository<ScimUser> {
      * @see Repository#create(ScimResource)
      */
     @Override
+    @Transactional
     public ScimUser create(ScimUser resource) throws UnableToCreateResourceException {
         log.debug("Creating resource: {}", resource);
         // check to make sure the user doesn't already exist
@@ -77,25 +111,60 @@ public class ScimUserService implements Repository<ScimUser> {
         return resource;
     }
 
-    private void saveUser(ScimUser scimUser) {
-        // save authorities in to sync user roles/groups between IdP and JHipster's local database
-        Collection<String> dbAuthorities = authorityRepository.findAll().stream().map(Authority::getName).toList();
-        log.debug("authorities from database: " + dbAuthorities);
-        Collection<String> userAuthorities = scimUser.getGroups().stream().map(ResourceReference::getValue).toList();
-        log.debug("scim.groups: " + scimUser.getGroups());
+    /**
+     * Saves the authorities referenced by the users' groups, to sync user roles/groups between the IdP and JHipster's
+     * local database. Bulk requests call this once per chunk of users instead of once per user.
+     *
+     * @param scimUsers the users to save the groups of.
+     */
+    void saveAuthorities(Collection<ScimUser> scimUsers) {
+        Collection<String> userAuthorities = scimUsers
+            .stream()
+            .filter(scimUser -> scimUser.getGroups() != null)
+            .flatMap(scimUser -> scimUser.getGroups().stream())
+            .map(ResourceReference::getValue)
+            .distinct()
+            .toList();
         log.debug("authorities from scim: " + userAuthorities);
+        authorityRegistry.ensureExists(userAuthorities);
+    }
 
-        for (String authority : userAuthorities) {
-            if (!dbAuthorities.contains(authority)) {
-                log.debug("Saving authority '{}' in local database", authority);
-                Authority authorityToSave = new Authority();
-                authorityToSave.setName(authority);
-                authorityRepository.save(authorityToSave);
-            }
-        }
+    private void saveUser(ScimUser scimUser) {
+        saveAuthorities(List.of(scimUser));
 
         log.debug("Saving user '{}' in local database", scimUser.getUserName());
+        User user = toUser(scimUser);
+        userRepository.save(user);
+        clearUserCaches(user);
+    }
 
+    /**
+     * Inserts a user that is known not to exist yet, without the select {@code save} runs to merge it.
+     * Its authorities must have been saved with {@link #saveAuthorities(Collection)}, and a transaction must be active.
+     *
+     * @param scimUser the user to insert.
+     */
+    void insertUser(ScimUser scimUser) {
+        log.debug("Inserting user '{}' in local database", scimUser.getUserName());
+        User user = toUser(scimUser);
+        entityManager.persist(user);
+        clearUserCaches(user);
+    }
+
+    /**
+     * Updates a user loaded in the current transaction, so merging it doesn't need another select.
+     * Its authorities must have been saved with {@link #saveAuthorities(Collection)}.
+     *
+     * @param scimUser the user to update.
+     */
+    void updateUser(ScimUser scimUser) {
+        log.debug("Updating user '{}' in local database", scimUser.getUserName());
+        User user = toUser(scimUser);
+        userRepository.save(user);
+        clearUserCaches(user);
+    }
+
+    private User toUser(ScimUser scimUser) {
         User user = new User();
         user.setId(scimUser.getExternalId());
         if (scimUser.getPrimaryEmailAddress().isPresent()) {
@@ -112,22 +181,18 @@ public class ScimUserService implements Repository<ScimUser> {
         }
         user.setImageUrl(scimUser.getProfileUrl());
         user.setCreatedBy("scimple");
-
-        userRepository.save(user);
-        clearUserCaches(user);
+        return user;
     }
 
     private void clearUserCaches(User user) {
-        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
-        if (user.getEmail() != null) {
-            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
-        }
+        userCacheEvictor.evict(user);
     }
 
     /**
      * @see Repository#update(UpdateRequest)
      */
     @Override
+    @Transactional
     public ScimUser update(UpdateRequest<ScimUser> updateRequest) throws UnableToUpdateResourceException {
         ScimUser resource = updateRequest.getResource();
         saveUser(resource);
@@ -138,65 +203,80 @@ public class ScimUserService implements Repository<ScimUser> {
      * @see Repository#get(String)
      */
     @Override
+    @Transactional(readOnly = true)
     public ScimUser get(String id) {
         log.debug("get id: {}", id);
-        Optional<User> optionalUser = userRepository.findById(id);
-        if (optionalUser.isPresent()) {
-            User user = optionalUser.get();
-            ScimUser scimUser = new ScimUser();
-            scimUser.setEmails(List.of(new Email().setPrimary(true).setValue(user.getEmail())));
-            scimUser.setUserName(user.getLogin());
-            scimUser.setName(new Name().setGivenName(user.getFirstName()).setFamilyName(user.getLastName()));
-            scimUser.setActive(user.isActivated());
-            scimUser.setLocale(user.getLangKey());
-            scimUser.setProfileUrl(user.getImageUrl());
-            return scimUser;
-        } else {
-            return null;
-        }
+        return userRepository.findById(id).map(this::toScimUser).orElse(null);
     }
 
     /**
      * @see Repository#delete(String)
      */
     @Override
+    @Transactional
     public void delete(String id) {
         log.debug("delete id: {} ", id);
-        userRepository.deleteById(id);
+        userRepository
+            .findById(id)
+            .ifPresent(user -> {
+                userRepository.delete(user);
+                clearUserCaches(user);
+            });
     }
 
     /**
      * @see Repository#find(Filter, PageRequest, SortRequest)
      */
     @Override
-    public FilterResponse<ScimUser> find(Filter filter, PageRequest pageRequest, SortRequest sortRequest) {
+    @Transactional(readOnly = true)
+    public FilterResponse<ScimUser> find(Filter filter, PageRequest pageRequest, SortRequest sortRequest) throws ResourceException {
         log.debug("filter: {}, page: {}, sort: {}", filter, pageRequest, sortRequest);
-        // todo: use filters and paging/sorting
 
-        long count = pageRequest.getCount() != null ? pageRequest.getCount() : userRepository.count();
-        long startIndex = pageRequest.getStartIndex() != null
-            ? pageRequest.getStartIndex() - 1 // SCIM is 1-based indexed
-            : 0;
+        List<ScimUser> result;
+        long total;
+        try {
+            List<User> users = QUERY_TRANSLATOR.find(entityManager, filter, pageRequest, sortRequest);
+            fetchAuthorities(users);
+            result = users.stream().map(this::toScimUser).toList();
+            total = QUERY_TRANSLATOR.totalFromPage(pageRequest, result.size()).orElseGet(() -> count(filter));
+        } catch (IllegalArgumentException e) {
+            throw new ResourceException(Response.Status.BAD_REQUEST.getStatusCode(), e.getMessage());
+        }
+
+        return new FilterResponse<>(result, pageRequest, Math.toIntExact(total));
+    }
 
-        List<ScimUser> result = userRepository
-            .findAll()
-            .stream()
-            .map(user -> {
-                ScimUser scimUser = new ScimUser();
-                scimUser.setUserName(user.getLogin());
-                scimUser.setExternalId(user.getLogin());
-                scimUser.setName(new Name().setFamilyName(user.getLastName()).setGivenName(user.getFirstName()));
-                scimUser.setEmails(List.of(new Email().setValue(user.getEmail()).setPrimary(true)));
-                List<ResourceReference> groups = List.of();
-                user.getAuthorities().stream().map(authority -> groups.add(new ResourceReference().setValue(authority.getName())));
-                scimUser.setGroups(groups);
-                return scimUser;
-            })
-            .skip(startIndex)
-            .limit(count)
-            .filter(FilterExpressions.inMemory(filter, schemaRegistry.getSchema(ScimUser.SCHEMA_URI)))
-            .collect(Collectors.toList());
-
-        return new FilterResponse<>(result, pageRequest, result.size());
+    /**
+     * Initializes the authorities of a page of users with one query, a fetch join can't be paginated in the database.
+     */
+    private void fetchAuthorities(List<User> users) {
+        if (!users.isEmpty()) {
+            userRepository.findAllWithAuthoritiesByIdIn(users.stream().map(User::getId).toList());
+        }
+    }
+
+    private long count(Filter filter) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return QUERY_TRANSLATOR.count(entityManager, filter);
+        } finally {
+            sample.stop(countTimer);
+        }
+    }
+
+    private ScimUser toScimUser(User user) {
+        ScimUser scimUser = new ScimUser();
+        scimUser.setId(user.getId());
+        scimUser.setExternalId(user.getId());
+        scimUser.setUserName(user.getLogin());
+        scimUser.setName(new Name().setGivenName(user.getFirstName()).setFamilyName(user.getLastName()));
+        scimUser.setEmails(List.of(new Email().setPrimary(true).setValue(user.getEmail())));
+        scimUser.setActive(user.isActivated());
+        scimUser.setLocale(user.getLangKey());
+        scimUser.setProfileUrl(user.getImageUrl());
+        scimUser.setGroups(
+            user.getAuthorities().stream().map(authority -> new ResourceReference().setValue(authority.getName())).toList()
+        );
+        return scimUser;
     }
 }
@@ -0,0 +1,53 @@
+package com.okta.developer.security.oauth2;
+
+import com.okta.developer.cache.CacheInvalidationBus;
+import com.okta.developer.domain.Authority;
+import com.okta.developer.domain.User;
+import com.okta.developer.repository.UserRepository;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts users from the {@link UserRepository#USERS_BY_LOGIN_CACHE} and {@link UserRepository#USERS_BY_EMAIL_CACHE}
+ * caches and from the {@link User} and {@link Authority} Hibernate regions after SCIM writes, on every node through the
+ * {@link CacheInvalidationBus}.
+ */
+@Component
+public class UserCacheEvictor {
+
+    private static final String USER_AUTHORITIES_REGION = User.class.getName() + ".authorities";
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public UserCacheEvictor(CacheInvalidationBus cacheInvalidationBus) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    public void evict(User user) {
+        evictAll(List.of(user.getId()), List.of(user.getLogin()), user.getEmail() != null ? List.of(user.getEmail()) : List.of());
+    }
+
+    /**
+     * Evicts many users at once, the evictions of a transaction are sent to the other nodes in a single batch.
+     *
+     * @param ids the ids of the users.
+     * @param logins the logins of the users.
+     * @param emails the emails of the users.
+     */
+    public void evictAll(Collection<String> ids, Collection<String> logins, Collection<String> emails) {
+        cacheInvalidationBus.evict(UserRepository.USERS_BY_LOGIN_CACHE, logins);
+        cacheInvalidationBus.evict(UserRepository.USERS_BY_EMAIL_CACHE, emails);
+        cacheInvalidationBus.evict(User.class.getName(), ids);
+        cacheInvalidationBus.evict(USER_AUTHORITIES_REGION, ids);
+    }
+
+    /**
+     * Evicts an authority, when it's deleted.
+     *
+     * @param name the name of the authority.
+     */
+    public void evictAuthority(String name) {
+        cacheInvalidationBus.evict(Authority.class.getName(), List.of(name));
+    }
+}
@@ -0,0 +1,136 @@
+package com.okta.developer.service;
+
+import com.okta.developer.config.ApplicationProperties;
+import com.okta.developer.domain.User;
+import com.okta.developer.repository.AuthorityRepository;
+import com.okta.developer.repository.PreferencesRepository;
+import com.okta.developer.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service filling the caches once the application has started, so the first requests after a deploy don't all miss.
+ * <p>
+ * All the authorities, and the {@code application.cache.warm-up.users} most recently modified active users with their
+ * authorities and preferences, are loaded in parallel on the {@code taskExecutor}. The users are put in the
+ * {@link UserRepository#USERS_BY_LOGIN_CACHE} cache and the entities in their second-level cache regions. The readiness
+ * probe reports the application out of service until the warm-up has completed, or failed.
+ */
+@Service
+public class CacheWarmUpService {
+
+    /**
+     * Number of users loaded per query and per task.
+     */
+    private static final int USER_CHUNK_SIZE = 500;
+
+    private final Logger log = LoggerFactory.getLogger(CacheWarmUpService.class);
+
+    private final UserRepository userRepository;
+
+    private final AuthorityRepository authorityRepository;
+
+    private final PreferencesRepository preferencesRepository;
+
+    private final CacheManager cacheManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Executor executor;
+
+    private final ApplicationProperties.Cache.WarmUp properties;
+
+    private volatile boolean complete;
+
+    public CacheWarmUpService(
+        UserRepository userRepository,
+        AuthorityRepository authorityRepository,
+        PreferencesRepository preferencesRepository,
+        CacheManager cacheManager,
+        PlatformTransactionManager transactionManager,
+        @Qualifier("taskExecutor") Executor executor,
+        ApplicationProperties applicationProperties
+    ) {
+        this.userRepository = userRepository;
+        this.authorityRepository = authorityRepository;
+        this.preferencesRepository = preferencesRepository;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.executor = executor;
+        this.properties = applicationProperties.getCache().getWarmUp();
+    }
+
+    /**
+     * Starts the warm-up once Liquibase has run. In development Liquibase runs asynchronously, if the schema isn't up to
+     * date yet the warm-up fails and the caches are filled on first use.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!properties.isEnabled() || properties.getUsers() <= 0) {
+            complete = true;
+            return;
+        }
+        long start = System.nanoTime();
+        CompletableFuture<Void> authorities = CompletableFuture.runAsync(
+            () -> transactionTemplate.executeWithoutResult(status -> authorityRepository.findAll()),
+            executor
+        );
+        CompletableFuture<Void> users = CompletableFuture
+            .supplyAsync(this::findRecentLogins, executor)
+            .thenCompose(logins -> {
+                List<CompletableFuture<Void>> chunks = new ArrayList<>();
+                for (int i = 0; i < logins.size(); i += USER_CHUNK_SIZE) {
+                    List<String> chunk = logins.subList(i, Math.min(i + USER_CHUNK_SIZE, logins.size()));
+                    chunks.add(CompletableFuture.runAsync(() -> loadUsers(chunk), executor));
+                }
+                return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new));
+            });
+        CompletableFuture
+            .allOf(authorities, users)
+            .whenComplete((result, e) -> {
+                if (e != null) {
+                    log.warn("Could not warm up the caches, they will be filled on first use: {}", e.getMessage());
+                } else {
+                    log.info("Warmed up the caches in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+                complete = true;
+            });
+    }
+
+    /**
+     * @return {@code true} once the warm-up has completed or failed, or if it's disabled.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    private List<String> findRecentLogins() {
+        PageRequest page = PageRequest.of(0, properties.getUsers());
+        return transactionTemplate.execute(status -> userRepository.findRecentlyModifiedActiveLogins(page));
+    }
+
+    private void loadUsers(List<String> logins) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<User> users = userRepository.findAllWithAuthoritiesByLoginIn(logins);
+            Cache cache = Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE));
+            users.forEach(user -> cache.putIfAbsent(user.getLogin(), user));
+            preferencesRepository.findAllByUserIdIn(users.stream().map(User::getId).toList());
+        });
+    }
+}
@@ -0,0 +1,217 @@
+package com.okta.developer.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.okta.developer.domain.BloodPressure;
+import com.okta.developer.domain.Points;
+import com.okta.developer.domain.Weight;
+import com.okta.developer.repository.BloodPressureRepository;
+import com.okta.developer.repository.PointsRepository;
+import com.okta.developer.repository.WeightRepository;
+import jakarta.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service exporting the health data of a user.
+ * <p>
+ * Rows are read from streaming queries and written to the output one at a time, each entity being detached once
+ * written, so memory use doesn't depend on the number of rows. CSV exports use the same columns as the Liquibase
+ * fake data files, timestamps are written in UTC.
+ */
+@Service
+@Transactional(readOnly = true)
+public class HealthDataExportService {
+
+    private static final String CSV_SEPARATOR = ";";
+
+    private final Logger log = LoggerFactory.getLogger(HealthDataExportService.class);
+
+    private final PointsRepository pointsRepository;
+
+    private final WeightRepository weightRepository;
+
+    private final BloodPressureRepository bloodPressureRepository;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    public HealthDataExportService(
+        PointsRepository pointsRepository,
+        WeightRepository weightRepository,
+        BloodPressureRepository bloodPressureRepository,
+        EntityManager entityManager,
+        ObjectMapper objectMapper
+    ) {
+        this.pointsRepository = pointsRepository;
+        this.weightRepository = weightRepository;
+        this.bloodPressureRepository = bloodPressureRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the data of a user as newline delimited JSON, one object per row with its {@code type}.
+     *
+     * @param login the login of the user.
+     * @param types the types of data to export.
+     * @param out the stream to write to.
+     * @throws IOException if the data couldn't be written.
+     */
+    public void exportNdjson(String login, Collection<HealthDataType> types, OutputStream out) throws IOException {
+        log.debug("Exporting {} of user {} as NDJSON", types, login);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(null);
+        for (HealthDataType type : types) {
+            switch (type) {
+                case POINTS -> writeAll(
+                    pointsRepository.streamAllByUserLogin(login),
+                    points -> {
+                        writeStart(generator, type, points.getId());
+                        generator.writeStringField("date", points.getDate().toString());
+                        generator.writeObjectField("exercise", points.getExercise());
+                        generator.writeObjectField("meals", points.getMeals());
+                        generator.writeObjectField("alcohol", points.getAlcohol());
+                        generator.writeObjectField("notes", points.getNotes());
+                        writeEnd(generator);
+                    }
+                );
+                case WEIGHTS -> writeAll(
+                    weightRepository.streamAllByUserLogin(login),
+                    weight -> {
+                        writeStart(generator, type, weight.getId());
+                        generator.writeStringField("timestamp", format(weight.getTimestamp()));
+                        generator.writeObjectField("weight", weight.getWeight());
+                        writeEnd(generator);
+                    }
+                );
+                case BLOOD_PRESSURES -> writeAll(
+                    bloodPressureRepository.streamAllByUserLogin(login),
+                    bloodPressure -> {
+                        writeStart(generator, type, bloodPressure.getId());
+                        generator.writeStringField("timestamp", format(bloodPressure.getTimestamp()));
+                        generator.writeObjectField("systolic", bloodPressure.getSystolic());
+                        generator.writeObjectField("diastolic", bloodPressure.getDiastolic());
+                        writeEnd(generator);
+                    }
+                );
+            }
+        }
+        generator.flush();
+    }
+
+    /**
+     * Writes the data of a user as CSV, separated by semicolons.
+     *
+     * @param login the login of the user.
+     * @param type the type of data to export.
+     * @param out the stream to write to.
+     * @throws IOException if the data couldn't be written.
+     */
+    public void exportCsv(String login, HealthDataType type, OutputStream out) throws IOException {
+        log.debug("Exporting {} of user {} as CSV", type, login);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        switch (type) {
+            case POINTS -> {
+                writeCsvRow(writer, "id", "date", "exercise", "meals", "alcohol", "notes");
+                writeAll(
+                    pointsRepository.streamAllByUserLogin(login),
+                    (Points points) ->
+                        writeCsvRow(
+                            writer,
+                            points.getId(),
+                            points.getDate(),
+                            points.getExercise(),
+                            points.getMeals(),
+                            points.getAlcohol(),
+                            points.getNotes()
+                        )
+                );
+            }
+            case WEIGHTS -> {
+                writeCsvRow(writer, "id", "timestamp", "weight");
+                writeAll(
+                    weightRepository.streamAllByUserLogin(login),
+                    (Weight weight) -> writeCsvRow(writer, weight.getId(), format(weight.getTimestamp()), weight.getWeight())
+                );
+            }
+            case BLOOD_PRESSURES -> {
+                writeCsvRow(writer, "id", "timestamp", "systolic", "diastolic");
+                writeAll(
+                    bloodPressureRepository.streamAllByUserLogin(login),
+                    (BloodPressure bloodPressure) ->
+                        writeCsvRow(
+                            writer,
+                            bloodPressure.getId(),
+                            format(bloodPressure.getTimestamp()),
+                            bloodPressure.getSystolic(),
+                            bloodPressure.getDiastolic()
+                        )
+                );
+            }
+        }
+        writer.flush();
+    }
+
+    private <T> void writeAll(Stream<T> rows, RowWriter<T> rowWriter) throws IOException {
+        try (rows) {
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                T row = iterator.next();
+                rowWriter.write(row);
+                // keep the persistence context empty, the rows are not needed once written
+                entityManager.detach(row);
+            }
+        }
+    }
+
+    private void writeStart(JsonGenerator generator, HealthDataType type, Long id) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", type.getApiName());
+        generator.writeNumberField("id", id);
+    }
+
+    private void writeEnd(JsonGenerator generator) throws IOException {
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private void writeCsvRow(Writer writer, Object... values) throws IOException {
+        writer.write(Stream.of(values).map(this::toCsvValue).collect(Collectors.joining(CSV_SEPARATOR)));
+        writer.write('\n');
+    }
+
+    private String toCsvValue(Object value) {
+        String text = Objects.toString(value, "");
+        if (text.contains(CSV_SEPARATOR) || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    private static String format(ZonedDateTime timestamp) {
+        return timestamp.withZoneSameInstant(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+    }
+
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(T row) throws IOException;
+    }
+}
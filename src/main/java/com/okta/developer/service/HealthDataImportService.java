@@ -0,0 +1,372 @@
+package com.okta.developer.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.okta.developer.config.ApplicationProperties;
+import com.okta.developer.domain.BloodPressure;
+import com.okta.developer.domain.Points;
+import com.okta.developer.domain.User;
+import com.okta.developer.domain.Weight;
+import com.okta.developer.repository.UserRepository;
+import com.okta.developer.service.PointsRollupService.WeekKey;
+import com.okta.developer.service.dto.ImportResultDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service importing the health data of a user, from NDJSON or from CSV in the format of the Liquibase fake data files.
+ * <p>
+ * The input is read line by line. Valid rows are written in chunks of {@code application.health-data-import.chunk-size},
+ * each chunk in its own transaction, so Hibernate sends the inserts in JDBC batches and allocates their ids from the
+ * blocks of the entity sequences. Invalid rows are rejected with their line number without stopping the import. When the
+ * database rejects a chunk, its rows are written again one per transaction so only the failing rows are rejected. Ids
+ * in the input are ignored, the rows are always created for the importing user.
+ */
+@Service
+public class HealthDataImportService {
+
+    private static final char CSV_SEPARATOR = ';';
+
+    private final Logger log = LoggerFactory.getLogger(HealthDataImportService.class);
+
+    private final UserRepository userRepository;
+
+    private final PointsRollupService pointsRollupService;
+
+    private final RecentHealthDataService recentHealthDataService;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    private final int maxErrors;
+
+    public HealthDataImportService(
+        UserRepository userRepository,
+        PointsRollupService pointsRollupService,
+        RecentHealthDataService recentHealthDataService,
+        EntityManager entityManager,
+        ObjectMapper objectMapper,
+        Validator validator,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.userRepository = userRepository;
+        this.pointsRollupService = pointsRollupService;
+        this.recentHealthDataService = recentHealthDataService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = applicationProperties.getHealthDataImport().getChunkSize();
+        this.maxErrors = applicationProperties.getHealthDataImport().getMaxErrors();
+    }
+
+    /**
+     * Imports newline delimited JSON, one object per row, as written by {@link HealthDataExportService}.
+     *
+     * @param login the login of the user the data belongs to.
+     * @param type the type of the rows without a {@code type} field, may be {@code null}.
+     * @param in the input.
+     * @return the number of imported and rejected rows.
+     * @throws IOException if the input couldn't be read.
+     */
+    public ImportResultDTO importNdjson(String login, HealthDataType type, InputStream in) throws IOException {
+        log.debug("Importing NDJSON for user {}", login);
+        Importer importer = new Importer(findUser(login));
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                if (!node.isObject()) {
+                    throw new IllegalArgumentException("Not a JSON object");
+                }
+                Map<String, String> values = new HashMap<>();
+                node
+                    .fields()
+                    .forEachRemaining(field -> values.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText()));
+                HealthDataType rowType = type;
+                if (values.get("type") != null) {
+                    rowType = parseType(values.get("type"));
+                }
+                if (rowType == null) {
+                    throw new IllegalArgumentException("Missing type");
+                }
+                importer.add(lineNumber, rowType, values);
+            } catch (JsonProcessingException e) {
+                importer.reject(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException | DateTimeException e) {
+                importer.reject(lineNumber, e.getMessage());
+            }
+        }
+        return importer.finish();
+    }
+
+    /**
+     * Imports CSV separated by semicolons, with a header line naming the columns.
+     *
+     * @param login the login of the user the data belongs to.
+     * @param type the type of the rows.
+     * @param in the input.
+     * @return the number of imported and rejected rows.
+     * @throws IOException if the input couldn't be read.
+     */
+    public ImportResultDTO importCsv(String login, HealthDataType type, InputStream in) throws IOException {
+        log.debug("Importing {} CSV for user {}", type, login);
+        Importer importer = new Importer(findUser(login));
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            return importer.finish();
+        }
+        List<String> header = parseCsvLine(headerLine);
+        long lineNumber = 1;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                List<String> fields = parseCsvLine(line);
+                if (fields.size() != header.size()) {
+                    throw new IllegalArgumentException("Expected " + header.size() + " values but got " + fields.size());
+                }
+                Map<String, String> values = new HashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    values.put(header.get(i), fields.get(i));
+                }
+                importer.add(lineNumber, type, values);
+            } catch (IllegalArgumentException | DateTimeException e) {
+                importer.reject(lineNumber, e.getMessage());
+            }
+        }
+        return importer.finish();
+    }
+
+    private User findUser(String login) {
+        return userRepository.findOneByLogin(login).orElseThrow(() -> new IllegalStateException("User " + login + " not found"));
+    }
+
+    private static HealthDataType parseType(String value) {
+        return HealthDataType.fromApiName(value).orElseThrow(() -> new IllegalArgumentException("Invalid type: " + value));
+    }
+
+    private static Object toEntity(HealthDataType type, Map<String, String> values, User user) {
+        return switch (type) {
+            case POINTS -> new Points()
+                .date(parseDate(values.get("date")))
+                .exercise(parseInteger(values.get("exercise")))
+                .meals(parseInteger(values.get("meals")))
+                .alcohol(parseInteger(values.get("alcohol")))
+                .notes(emptyToNull(values.get("notes")))
+                .user(user);
+            case WEIGHTS -> new Weight()
+                .timestamp(parseTimestamp(values.get("timestamp")))
+                .weight(parseDouble(values.get("weight")))
+                .user(user);
+            case BLOOD_PRESSURES -> new BloodPressure()
+                .timestamp(parseTimestamp(values.get("timestamp")))
+                .systolic(parseInteger(values.get("systolic")))
+                .diastolic(parseInteger(values.get("diastolic")))
+                .user(user);
+        };
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static LocalDate parseDate(String value) {
+        return emptyToNull(value) == null ? null : LocalDate.parse(value.trim());
+    }
+
+    /**
+     * Parses an ISO timestamp, timestamps without an offset (like in the fake data files) are in UTC.
+     */
+    private static ZonedDateTime parseTimestamp(String value) {
+        if (emptyToNull(value) == null) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(value.trim()).atZone(ZoneOffset.UTC);
+        }
+    }
+
+    private static Integer parseInteger(String value) {
+        return emptyToNull(value) == null ? null : Integer.valueOf(value.trim());
+    }
+
+    private static Double parseDouble(String value) {
+        return emptyToNull(value) == null ? null : Double.valueOf(value.trim());
+    }
+
+    /**
+     * Splits a CSV line, values containing the separator or quotes are quoted and their quotes doubled.
+     */
+    private static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == CSV_SEPARATOR) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Collects the valid rows of an import and writes them a chunk at a time.
+     */
+    private class Importer {
+
+        private final User user;
+
+        private final ImportResultDTO result = new ImportResultDTO();
+
+        private List<PendingRow> pending = new ArrayList<>();
+
+        Importer(User user) {
+            this.user = user;
+        }
+
+        void add(long line, HealthDataType type, Map<String, String> values) {
+            Object entity = toEntity(type, values, user);
+            Set<ConstraintViolation<Object>> violations = validator.validate(entity);
+            if (!violations.isEmpty()) {
+                reject(
+                    line,
+                    violations
+                        .stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", "))
+                );
+                return;
+            }
+            pending.add(new PendingRow(line, type, values, entity));
+            if (pending.size() >= chunkSize) {
+                writePending();
+            }
+        }
+
+        void reject(long line, String message) {
+            result.setRejected(result.getRejected() + 1);
+            if (result.getErrors().size() < maxErrors) {
+                result.getErrors().add(new ImportResultDTO.RowError(line, message));
+            }
+        }
+
+        ImportResultDTO finish() {
+            writePending();
+            log.debug("Import finished: {}", result);
+            return result;
+        }
+
+        private void writePending() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<PendingRow> chunk = pending;
+            pending = new ArrayList<>();
+            try {
+                write(chunk.stream().map(PendingRow::entity).toList());
+                result.setImported(result.getImported() + chunk.size());
+            } catch (RuntimeException e) {
+                if (chunk.size() == 1) {
+                    reject(chunk.get(0).line(), e.getMessage());
+                    return;
+                }
+                log.warn("Import chunk of {} rows was rolled back, writing its rows one at a time: {}", chunk.size(), e.getMessage());
+                for (PendingRow row : chunk) {
+                    try {
+                        // the rolled back persist assigned an id to the entity, write a new one
+                        write(List.of(toEntity(row.type(), row.values(), user)));
+                        result.setImported(result.getImported() + 1);
+                    } catch (RuntimeException rowException) {
+                        reject(row.line(), rowException.getMessage());
+                    }
+                }
+            }
+        }
+
+        private void write(List<Object> entities) {
+            transactionTemplate.executeWithoutResult(status -> {
+                // imported rows are not read back soon, don't put them in the second-level cache
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+                Set<WeekKey> weeks = new HashSet<>();
+                for (Object entity : entities) {
+                    entityManager.persist(entity);
+                    if (entity instanceof Points points && WeekKey.of(points) != null) {
+                        weeks.add(WeekKey.of(points));
+                    }
+                }
+                entityManager.flush();
+                pointsRollupService.refreshWeeks(weeks);
+                recentHealthDataService.evictPointsWeeks(weeks);
+                recentHealthDataService.evictLatest(List.of(user.getId()));
+            });
+        }
+    }
+
+    private record PendingRow(long line, HealthDataType type, Map<String, String> values, Object entity) {}
+}
@@ -0,0 +1,27 @@
+package com.okta.developer.service;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The types of health data that can be exported and imported, with the name used in the API.
+ */
+public enum HealthDataType {
+    POINTS("points"),
+    WEIGHTS("weights"),
+    BLOOD_PRESSURES("blood-pressures");
+
+    private final String apiName;
+
+    HealthDataType(String apiName) {
+        this.apiName = apiName;
+    }
+
+    public String getApiName() {
+        return apiName;
+    }
+
+    public static Optional<HealthDataType> fromApiName(String apiName) {
+        return Arrays.stream(values()).filter(type -> type.apiName.equals(apiName)).findFirst();
+    }
+}
@@ -0,0 +1,128 @@
+package com.okta.developer.service;
+
+import com.okta.developer.config.ApplicationProperties;
+import com.okta.developer.domain.Points;
+import com.okta.developer.repository.PointsRepository;
+import com.okta.developer.repository.PointsRepository.PointsPerPeriod;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collection;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service maintaining the weekly points totals of every user in {@code points_weekly_total}.
+ * <p>
+ * The total of a week is recomputed from its points whenever one of them is written, so reads are proportional to the
+ * number of weeks instead of the number of points. Weeks start on Monday. The totals of a user are recomputed by one
+ * transaction at a time, under a lock on the user row, so concurrent writes to the same week neither conflict nor miss
+ * each other's points. {@link #reconcile()} recomputes the recent weeks of all users with an upsert, on one node.
+ */
+@Service
+@Transactional
+public class PointsRollupService {
+
+    private final Logger log = LoggerFactory.getLogger(PointsRollupService.class);
+
+    private final PointsRepository pointsRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    public PointsRollupService(PointsRepository pointsRepository, ApplicationProperties applicationProperties) {
+        this.pointsRepository = pointsRepository;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Returns the first day of the week of a date.
+     *
+     * @param date the date.
+     * @return the Monday of the week.
+     */
+    public static LocalDate weekOf(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * Gets the weekly totals of a user.
+     *
+     * @param login the login of the user.
+     * @param from the first day of the range, the whole week it belongs to is included.
+     * @param to the last day of the range.
+     * @return the weekly totals, oldest first.
+     */
+    @Transactional(readOnly = true)
+    public List<PointsPerPeriod> getWeeklyTotals(String login, LocalDate from, LocalDate to) {
+        return pointsRepository.findWeeklyTotals(login, weekOf(from), to);
+    }
+
+    /**
+     * Updates the totals after points are written.
+     *
+     * @param previous the week key of the points before the write, or {@code null} if they were created.
+     * @param current the points after the write, or {@code null} if they were deleted.
+     */
+    public void onPointsChanged(WeekKey previous, Points current) {
+        WeekKey next = WeekKey.of(current);
+        if (previous != null) {
+            refresh(previous);
+        }
+        if (next != null && !next.equals(previous)) {
+            refresh(next);
+        }
+    }
+
+    /**
+     * Recomputes the totals of weeks, for example after points are imported.
+     *
+     * @param weeks the weeks to recompute.
+     */
+    public void refreshWeeks(Collection<WeekKey> weeks) {
+        weeks.forEach(this::refresh);
+    }
+
+    /**
+     * Recomputes the totals of all users for the last {@code application.points.rollup.reconcile-weeks} weeks, unless
+     * another node is already reconciling them.
+     */
+    @Scheduled(cron = "${application.points.rollup.reconcile-cron:0 30 3 * * ?}")
+    public void reconcile() {
+        if (!pointsRepository.tryLockReconciliation()) {
+            log.debug("The weekly points totals are reconciled by another node");
+            return;
+        }
+        int weeks = applicationProperties.getPoints().getRollup().getReconcileWeeks();
+        LocalDate week = weekOf(LocalDate.now()).minusWeeks(weeks - 1L);
+        log.debug("Reconciling the weekly points totals from {}", week);
+        for (int i = 0; i < weeks; i++, week = week.plusWeeks(1)) {
+            pointsRepository.upsertWeeklyTotals(week, week.plusDays(6));
+        }
+    }
+
+    private void refresh(WeekKey key) {
+        pointsRepository.lockWeeklyTotals(key.userId());
+        pointsRepository.deleteWeeklyTotal(key.userId(), key.week());
+        pointsRepository.insertWeeklyTotal(key.userId(), key.week(), key.week().plusDays(6));
+    }
+
+    /**
+     * The user and week a {@link Points} is counted in.
+     */
+    public record WeekKey(String userId, LocalDate week) {
+        /**
+         * @param points the points, may be {@code null}.
+         * @return the key, or {@code null} if the points are {@code null} or have no user.
+         */
+        public static WeekKey of(Points points) {
+            if (points == null || points.getUser() == null || points.getUser().getId() == null || points.getDate() == null) {
+                return null;
+            }
+            return new WeekKey(points.getUser().getId(), weekOf(points.getDate()));
+        }
+    }
+}
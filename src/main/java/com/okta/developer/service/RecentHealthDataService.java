@@ -0,0 +1,285 @@
+package com.okta.developer.service;
+
+import com.okta.developer.cache.CacheInvalidationBus;
+import com.okta.developer.domain.BloodPressure;
+import com.okta.developer.domain.Points;
+import com.okta.developer.domain.User;
+import com.okta.developer.domain.Weight;
+import com.okta.developer.repository.BloodPressureRepository;
+import com.okta.developer.repository.PointsRepository;
+import com.okta.developer.repository.UserRepository;
+import com.okta.developer.repository.WeightRepository;
+import com.okta.developer.service.PointsRollupService.WeekKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service reading the data shown on the home screen of a user: the points of the current week and the latest weight
+ * and blood pressure.
+ * <p>
+ * The results are cached per user in the {@link #POINTS_THIS_WEEK_CACHE}, {@link #LATEST_WEIGHT_CACHE} and
+ * {@link #LATEST_BLOOD_PRESSURE_CACHE} regions, sized by {@code application.cache.regions}. They are filled on read and
+ * evicted through the {@link CacheInvalidationBus} when the data of the user is written, so the cache keys are strings.
+ * The cached values are copies of the loaded entities, detached from the persistence context and its lazy collections, as
+ * they are shared by the requests of every thread. Hits and misses are counted in the {@code health.cache.gets} metric.
+ */
+@Service
+public class RecentHealthDataService {
+
+    public static final String POINTS_THIS_WEEK_CACHE = "pointsThisWeek";
+
+    public static final String LATEST_WEIGHT_CACHE = "latestWeight";
+
+    public static final String LATEST_BLOOD_PRESSURE_CACHE = "latestBloodPressure";
+
+    private final PointsRepository pointsRepository;
+
+    private final WeightRepository weightRepository;
+
+    private final BloodPressureRepository bloodPressureRepository;
+
+    private final UserRepository userRepository;
+
+    private final CacheManager cacheManager;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final MeterRegistry meterRegistry;
+
+    public RecentHealthDataService(
+        PointsRepository pointsRepository,
+        WeightRepository weightRepository,
+        BloodPressureRepository bloodPressureRepository,
+        UserRepository userRepository,
+        CacheManager cacheManager,
+        CacheInvalidationBus cacheInvalidationBus,
+        MeterRegistry meterRegistry
+    ) {
+        this.pointsRepository = pointsRepository;
+        this.weightRepository = weightRepository;
+        this.bloodPressureRepository = bloodPressureRepository;
+        this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Gets the points of a user in the current week.
+     *
+     * @param login the login of the user.
+     * @return the points, oldest first.
+     */
+    @Transactional(readOnly = true)
+    public List<Points> getPointsThisWeek(String login) {
+        Optional<String> userId = findUserId(login);
+        if (userId.isEmpty()) {
+            return List.of();
+        }
+        LocalDate week = PointsRollupService.weekOf(LocalDate.now());
+        return get(
+            POINTS_THIS_WEEK_CACHE,
+            pointsKey(new WeekKey(userId.get(), week)),
+            () ->
+                pointsRepository
+                    .findAllByUserIdAndDateBetweenOrderByDateAscIdAsc(userId.get(), week, week.plusDays(6))
+                    .stream()
+                    .map(RecentHealthDataService::copyOf)
+                    .toList()
+        );
+    }
+
+    /**
+     * Gets the latest weight of a user.
+     *
+     * @param login the login of the user.
+     * @return the weight with the most recent timestamp, if any.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Weight> getLatestWeight(String login) {
+        return findUserId(login)
+            .map(userId ->
+                get(
+                    LATEST_WEIGHT_CACHE,
+                    userId,
+                    () ->
+                        weightRepository
+                            .findFirstByUserIdOrderByTimestampDescIdDesc(userId)
+                            .map(RecentHealthDataService::copyOf)
+                            .orElse(null)
+                )
+            );
+    }
+
+    /**
+     * Gets the latest blood pressure of a user.
+     *
+     * @param login the login of the user.
+     * @return the blood pressure with the most recent timestamp, if any.
+     */
+    @Transactional(readOnly = true)
+    public Optional<BloodPressure> getLatestBloodPressure(String login) {
+        return findUserId(login)
+            .map(userId ->
+                get(
+                    LATEST_BLOOD_PRESSURE_CACHE,
+                    userId,
+                    () ->
+                        bloodPressureRepository
+                            .findFirstByUserIdOrderByTimestampDescIdDesc(userId)
+                            .map(RecentHealthDataService::copyOf)
+                            .orElse(null)
+                )
+            );
+    }
+
+    /**
+     * Evicts the current week points after points are written.
+     *
+     * @param previous the week key of the points before the write, or {@code null} if they were created.
+     * @param current the points after the write, or {@code null} if they were deleted.
+     */
+    public void evictPoints(WeekKey previous, Points current) {
+        Set<WeekKey> keys = new HashSet<>();
+        keys.add(previous);
+        keys.add(WeekKey.of(current));
+        evictPointsWeeks(keys);
+    }
+
+    /**
+     * Evicts the points of weeks, for example after points are imported.
+     *
+     * @param weeks the weeks of the written points.
+     */
+    public void evictPointsWeeks(Collection<WeekKey> weeks) {
+        cacheInvalidationBus.evict(
+            POINTS_THIS_WEEK_CACHE,
+            weeks.stream().filter(Objects::nonNull).map(RecentHealthDataService::pointsKey).toList()
+        );
+    }
+
+    /**
+     * Evicts the latest weight of the users of weights after they are written.
+     *
+     * @param weights the weights before and after the write, {@code null} values are ignored.
+     */
+    public void evictLatestWeight(Weight... weights) {
+        cacheInvalidationBus.evict(LATEST_WEIGHT_CACHE, userIds(Stream.of(weights).filter(Objects::nonNull).map(Weight::getUser)));
+    }
+
+    /**
+     * Evicts the latest blood pressure of the users of blood pressures after they are written.
+     *
+     * @param bloodPressures the blood pressures before and after the write, {@code null} values are ignored.
+     */
+    public void evictLatestBloodPressure(BloodPressure... bloodPressures) {
+        cacheInvalidationBus.evict(
+            LATEST_BLOOD_PRESSURE_CACHE,
+            userIds(Stream.of(bloodPressures).filter(Objects::nonNull).map(BloodPressure::getUser))
+        );
+    }
+
+    /**
+     * Evicts the latest weight and blood pressure of users.
+     *
+     * @param userIds the ids of the users.
+     */
+    public void evictLatest(Collection<String> userIds) {
+        cacheInvalidationBus.evict(LATEST_WEIGHT_CACHE, userIds);
+        cacheInvalidationBus.evict(LATEST_BLOOD_PRESSURE_CACHE, userIds);
+    }
+
+    private Optional<String> findUserId(String login) {
+        return userRepository.findOneWithAuthoritiesByLogin(login).map(User::getId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(String cacheName, String key, Supplier<T> loader) {
+        Cache cache = getCache(cacheName);
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            countGet(cacheName, "hit");
+            return (T) cached.get();
+        }
+        countGet(cacheName, "miss");
+        T value = loader.get();
+        cache.put(key, value);
+        return value;
+    }
+
+    private void countGet(String cacheName, String result) {
+        meterRegistry.counter("health.cache.gets", "cache", cacheName, "result", result).increment();
+    }
+
+    private static Set<String> userIds(Stream<User> users) {
+        return users.filter(Objects::nonNull).map(User::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    private static Points copyOf(Points points) {
+        return new Points()
+            .id(points.getId())
+            .date(points.getDate())
+            .exercise(points.getExercise())
+            .meals(points.getMeals())
+            .alcohol(points.getAlcohol())
+            .notes(points.getNotes())
+            .user(copyOf(points.getUser()));
+    }
+
+    private static Weight copyOf(Weight weight) {
+        return new Weight().id(weight.getId()).timestamp(weight.getTimestamp()).weight(weight.getWeight()).user(copyOf(weight.getUser()));
+    }
+
+    private static BloodPressure copyOf(BloodPressure bloodPressure) {
+        return new BloodPressure()
+            .id(bloodPressure.getId())
+            .timestamp(bloodPressure.getTimestamp())
+            .systolic(bloodPressure.getSystolic())
+            .diastolic(bloodPressure.getDiastolic())
+            .user(copyOf(bloodPressure.getUser()));
+    }
+
+    /**
+     * Copies the serialized fields of a user, the authorities are left empty.
+     */
+    private static User copyOf(User user) {
+        if (user == null) {
+            return null;
+        }
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setLogin(user.getLogin());
+        copy.setFirstName(user.getFirstName());
+        copy.setLastName(user.getLastName());
+        copy.setEmail(user.getEmail());
+        copy.setImageUrl(user.getImageUrl());
+        copy.setActivated(user.isActivated());
+        copy.setLangKey(user.getLangKey());
+        copy.setCreatedBy(user.getCreatedBy());
+        copy.setCreatedDate(user.getCreatedDate());
+        copy.setLastModifiedBy(user.getLastModifiedBy());
+        copy.setLastModifiedDate(user.getLastModifiedDate());
+        return copy;
+    }
+
+    private static String pointsKey(WeekKey week) {
+        return week.userId() + "/" + week.week();
+    }
+
+    private Cache getCache(String cacheName) {
+        return Objects.requireNonNull(cacheManager.getCache(cacheName), () -> "Cache " + cacheName + " is not configured");
+    }
+}
@@ -0,0 +1,57 @@
+package com.okta.developer.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of a health data import, with the errors of the rejected rows.
+ */
+public class ImportResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long imported;
+
+    private long rejected;
+
+    private final List<RowError> errors = new ArrayList<>();
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * The errors of the rejected rows, up to a limit, {@link #getRejected()} counts all of them.
+     *
+     * @return the errors.
+     */
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResultDTO{" + "imported=" + imported + ", rejected=" + rejected + "}";
+    }
+
+    /**
+     * The error of a rejected row.
+     *
+     * @param line the line number of the row in the input, starting at 1.
+     * @param message the reason the row was rejected.
+     */
+    public record RowError(long line, String message) implements Serializable {}
+}
@@ -2,11 +2,17 @@ package com.okta.developer.web.rest;
 
 import com.okta.developer.domain.BloodPressure;
 import com.okta.developer.repository.BloodPressureRepository;
+import com.okta.developer.repository.TableStatisticsRepository;
+import com.okta.developer.security.SecurityUtils;
+import com.okta.developer.service.RecentHealthDataService;
 import com.okta.developer.web.rest.errors.BadRequestAlertException;
+import com.okta.developer.web.rest.util.ScrollPaginationUtil;
+import com.okta.developer.web.rest.util.ScrollPaginationUtil.TimestampCursor;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -14,7 +20,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -42,8 +51,18 @@ public class BloodPressureResource {
 
     private final BloodPressureRepository bloodPressureRepository;
 
-    public BloodPressureResource(BloodPressureRepository bloodPressureRepository) {
+    private final TableStatisticsRepository tableStatisticsRepository;
+
+    private final RecentHealthDataService recentHealthDataService;
+
+    public BloodPressureResource(
+        BloodPressureRepository bloodPressureRepository,
+        TableStatisticsRepository tableStatisticsRepository,
+        RecentHealthDataService recentHealthDataService
+    ) {
         this.bloodPressureRepository = bloodPressureRepository;
+        this.tableStatisticsRepository = tableStatisticsRepository;
+        this.recentHealthDataService = recentHealthDataService;
     }
 
     /**
@@ -60,6 +79,7 @@ public class BloodPressureResource {
             throw new BadRequestAlertException("A new bloodPressure cannot already have an ID", ENTITY_NAME, "idexists");
         }
         BloodPressure result = bloodPressureRepository.save(bloodPressure);
+        recentHealthDataService.evictLatestBloodPressure(result);
         return ResponseEntity
             .created(new URI("/api/blood-pressures/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
@@ -89,9 +109,10 @@ public class BloodPressureResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!bloodPressureRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        BloodPressure existingBloodPressure = bloodPressureRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        recentHealthDataService.evictLatestBloodPressure(existingBloodPressure, bloodPressure);
 
         BloodPressure result = bloodPressureRepository.save(bloodPressure);
         return ResponseEntity
@@ -124,12 +145,8 @@ public class BloodPressureResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!bloodPressureRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<BloodPressure> result = bloodPressureRepository
-            .findById(bloodPressure.getId())
+            .findById(id)
             .map(existingBloodPressure -> {
                 if (bloodPressure.getTimestamp() != null) {
                     existingBloodPressure.setTimestamp(bloodPressure.getTimestamp());
@@ -141,9 +158,9 @@ public class BloodPressureResource {
                     existingBloodPressure.setDiastolic(bloodPressure.getDiastolic());
                 }
 
+                recentHealthDataService.evictLatestBloodPressure(existingBloodPressure);
                 return existingBloodPressure;
-            })
-            .map(bloodPressureRepository::save);
+            });
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -153,25 +170,72 @@ public class BloodPressureResource {
 
     /**
      * {@code GET  /blood-pressures} : get all the bloodPressures.
+     * <p>
+     * Unless filtered by date, the bloodPressures are returned as a slice, with links to the first and next pages but no
+     * {@code COUNT} query. On PostgreSQL an estimated total is sent in {@code X-Estimated-Total-Count}.
      *
      * @param pageable the pagination information.
      * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
+     * @param from if set, only the bloodPressures of the current user with a timestamp from this one are returned.
+     * @param to if set, only the bloodPressures of the current user with a timestamp up to this one are returned, defaults to
+     * now when {@code from} is set.
+     * @param after if set, the bloodPressures older than this {@code <timestamp>,<id>} cursor are returned newest first,
+     * with a {@code rel="next"} link instead of a total count. An empty cursor starts from the newest.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of bloodPressures in body.
      */
     @GetMapping("/blood-pressures")
     public ResponseEntity<List<BloodPressure>> getAllBloodPressures(
         @org.springdoc.api.annotations.ParameterObject Pageable pageable,
-        @RequestParam(required = false, defaultValue = "false") boolean eagerload
+        @RequestParam(required = false, defaultValue = "false") boolean eagerload,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to,
+        @RequestParam(required = false) String after
     ) {
         log.debug("REST request to get a page of BloodPressures");
-        Page<BloodPressure> page;
+        if (after != null) {
+            return getAllBloodPressuresAfter(after, pageable.getPageSize());
+        }
+        if (from != null || to != null) {
+            String login = SecurityUtils
+                .getCurrentUserLogin()
+                .orElseThrow(() -> new BadRequestAlertException("Current user login not found", ENTITY_NAME, "nologin"));
+            ZonedDateTime end = to != null ? to : ZonedDateTime.now();
+            if (from != null && from.isAfter(end)) {
+                throw new BadRequestAlertException("The from timestamp is after the to timestamp", ENTITY_NAME, "invalidrange");
+            }
+            Page<BloodPressure> page = from != null
+                ? bloodPressureRepository.findAllByUserLoginAndTimestampBetween(login, from, end, pageable)
+                : bloodPressureRepository.findAllByUserLoginAndTimestampLessThanEqual(login, end, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        Slice<BloodPressure> slice;
         if (eagerload) {
-            page = bloodPressureRepository.findAllWithEagerRelationships(pageable);
+            slice = bloodPressureRepository.findSliceWithEagerRelationships(pageable);
         } else {
-            page = bloodPressureRepository.findAll(pageable);
+            slice = bloodPressureRepository.findSliceBy(pageable);
         }
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        HttpHeaders headers = ScrollPaginationUtil.generateSliceHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            tableStatisticsRepository.estimateRowCount("blood_pressure")
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /blood-pressures/latest} : get the latest bloodPressure of the current user.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the bloodPressure with the most recent timestamp,
+     * or with status {@code 404 (Not Found)} if the current user has none.
+     */
+    @GetMapping("/blood-pressures/latest")
+    public ResponseEntity<BloodPressure> getLatestBloodPressure() {
+        log.debug("REST request to get the latest BloodPressure");
+        String login = SecurityUtils
+            .getCurrentUserLogin()
+            .orElseThrow(() -> new BadRequestAlertException("Current user login not found", ENTITY_NAME, "nologin"));
+        return ResponseUtil.wrapOrNotFound(recentHealthDataService.getLatestBloodPressure(login));
     }
 
     /**
@@ -196,10 +260,35 @@ public class BloodPressureResource {
     @DeleteMapping("/blood-pressures/{id}")
     public ResponseEntity<Void> deleteBloodPressure(@PathVariable Long id) {
         log.debug("REST request to delete BloodPressure : {}", id);
-        bloodPressureRepository.deleteById(id);
+        bloodPressureRepository
+            .findById(id)
+            .ifPresent(bloodPressure -> {
+                bloodPressureRepository.delete(bloodPressure);
+                recentHealthDataService.evictLatestBloodPressure(bloodPressure);
+            });
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private ResponseEntity<List<BloodPressure>> getAllBloodPressuresAfter(String after, int size) {
+        TimestampCursor cursor;
+        try {
+            cursor = TimestampCursor.parse(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        PageRequest pageRequest = PageRequest.ofSize(size);
+        List<BloodPressure> bloodPressures = cursor == null
+            ? bloodPressureRepository.findAllByOrderByTimestampDescIdDesc(pageRequest)
+            : bloodPressureRepository.findAllBefore(cursor.timestamp(), cursor.id(), pageRequest);
+        HttpHeaders headers = ScrollPaginationUtil.generateKeysetHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            bloodPressures,
+            size,
+            bloodPressure -> new TimestampCursor(bloodPressure.getTimestamp(), bloodPressure.getId())
+        );
+        return ResponseEntity.ok().headers(headers).body(bloodPressures);
+    }
 }
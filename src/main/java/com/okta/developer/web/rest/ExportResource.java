@@ -0,0 +1,113 @@
+package com.okta.developer.web.rest;
+
+import com.okta.developer.security.SecurityUtils;
+import com.okta.developer.service.HealthDataExportService;
+import com.okta.developer.service.HealthDataType;
+import com.okta.developer.web.rest.errors.BadRequestAlertException;
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * REST controller exporting the health data of the current user.
+ */
+@RestController
+@RequestMapping("/api")
+public class ExportResource {
+
+    static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final String ENTITY_NAME = "export";
+
+    /**
+     * Async timeout of the streamed exports, which can take longer than the default timeout of the other async requests.
+     */
+    private static final Duration EXPORT_TIMEOUT = Duration.ofHours(1);
+
+    private static final CallableProcessingInterceptor EXPORT_TIMEOUT_INTERCEPTOR = new CallableProcessingInterceptor() {
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            // called before the async processing starts, with the request the timeout is applied from
+            if (request instanceof AsyncWebRequest asyncWebRequest) {
+                asyncWebRequest.setTimeout(EXPORT_TIMEOUT.toMillis());
+            }
+        }
+    };
+
+    private final Logger log = LoggerFactory.getLogger(ExportResource.class);
+
+    private final HealthDataExportService healthDataExportService;
+
+    public ExportResource(HealthDataExportService healthDataExportService) {
+        this.healthDataExportService = healthDataExportService;
+    }
+
+    /**
+     * {@code GET  /export} : export the health data of the current user.
+     *
+     * @param type the type of data to export ({@code points}, {@code weights} or {@code blood-pressures}), all types if not set.
+     * @param format {@code ndjson} (default) or {@code csv}, CSV exports need a type.
+     * @param request the request, streamed with a longer async timeout.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the data streamed in body,
+     * or with status {@code 400 (Bad Request)} if the type or format is not valid.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+        @RequestParam(required = false) String type,
+        @RequestParam(defaultValue = "ndjson") String format,
+        HttpServletRequest request
+    ) {
+        log.debug("REST request to export {} as {}", type, format);
+        String login = SecurityUtils
+            .getCurrentUserLogin()
+            .orElseThrow(() -> new BadRequestAlertException("Current user login not found", ENTITY_NAME, "nologin"));
+        List<HealthDataType> types = type == null
+            ? List.of(HealthDataType.values())
+            : List.of(
+                HealthDataType.fromApiName(type).orElseThrow(() -> new BadRequestAlertException("Invalid type", ENTITY_NAME, "typeinvalid"))
+            );
+        String filename = "health-points-" + (type == null ? "export" : type);
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ExportResource.class.getName(), EXPORT_TIMEOUT_INTERCEPTOR);
+
+        return switch (format) {
+            case "ndjson" -> ResponseEntity
+                .ok()
+                .contentType(APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(filename + ".ndjson"))
+                .body(out -> healthDataExportService.exportNdjson(login, types, out));
+            case "csv" -> {
+                if (types.size() != 1) {
+                    throw new BadRequestAlertException("CSV exports need a type", ENTITY_NAME, "typerequired");
+                }
+                yield ResponseEntity
+                    .ok()
+                    .contentType(TEXT_CSV)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, attachment(filename + ".csv"))
+                    .body(out -> healthDataExportService.exportCsv(login, types.get(0), out));
+            }
+            default -> throw new BadRequestAlertException("Invalid format", ENTITY_NAME, "formatinvalid");
+        };
+    }
+
+    private static String attachment(String filename) {
+        return ContentDisposition.attachment().filename(filename).build().toString();
+    }
+}
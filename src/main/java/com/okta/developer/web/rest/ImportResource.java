@@ -0,0 +1,73 @@
+package com.okta.developer.web.rest;
+
+import com.okta.developer.security.SecurityUtils;
+import com.okta.developer.service.HealthDataImportService;
+import com.okta.developer.service.HealthDataType;
+import com.okta.developer.service.dto.ImportResultDTO;
+import com.okta.developer.web.rest.errors.BadRequestAlertException;
+import java.io.IOException;
+import java.io.InputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller importing health data for the current user.
+ */
+@RestController
+@RequestMapping("/api")
+public class ImportResource {
+
+    private static final String ENTITY_NAME = "import";
+
+    private final Logger log = LoggerFactory.getLogger(ImportResource.class);
+
+    private final HealthDataImportService healthDataImportService;
+
+    public ImportResource(HealthDataImportService healthDataImportService) {
+        this.healthDataImportService = healthDataImportService;
+    }
+
+    /**
+     * {@code POST  /import} : import health data for the current user, the request body is read as it is parsed.
+     *
+     * @param type the type of the rows ({@code points}, {@code weights} or {@code blood-pressures}), required for CSV.
+     * NDJSON rows can set it in a {@code type} field instead.
+     * @param format {@code ndjson} (default) or {@code csv}, separated by semicolons with a header line.
+     * @param body the request body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the number of imported rows and the errors of
+     * the rejected ones in body, or with status {@code 400 (Bad Request)} if the type or format is not valid.
+     * @throws IOException if the request body couldn't be read.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportResultDTO> importHealthData(
+        @RequestParam(required = false) String type,
+        @RequestParam(defaultValue = "ndjson") String format,
+        InputStream body
+    ) throws IOException {
+        log.debug("REST request to import {} as {}", type, format);
+        String login = SecurityUtils
+            .getCurrentUserLogin()
+            .orElseThrow(() -> new BadRequestAlertException("Current user login not found", ENTITY_NAME, "nologin"));
+        HealthDataType dataType = type == null
+            ? null
+            : HealthDataType.fromApiName(type).orElseThrow(() -> new BadRequestAlertException("Invalid type", ENTITY_NAME, "typeinvalid"));
+
+        ImportResultDTO result =
+            switch (format) {
+                case "ndjson" -> healthDataImportService.importNdjson(login, dataType, body);
+                case "csv" -> {
+                    if (dataType == null) {
+                        throw new BadRequestAlertException("CSV imports need a type", ENTITY_NAME, "typerequired");
+                    }
+                    yield healthDataImportService.importCsv(login, dataType, body);
+                }
+                default -> throw new BadRequestAlertException("Invalid format", ENTITY_NAME, "formatinvalid");
+            };
+        return ResponseEntity.ok(result);
+    }
+}
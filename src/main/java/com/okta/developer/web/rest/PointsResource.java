@@ -2,11 +2,17 @@ package com.okta.developer.web.rest;
 
 import com.okta.developer.domain.Points;
 import com.okta.developer.repository.PointsRepository;
+import com.okta.developer.repository.PointsRepository.PointsPerPeriod;
+import com.okta.developer.security.SecurityUtils;
+import com.okta.developer.service.PointsRollupService;
+import com.okta.developer.service.PointsRollupService.WeekKey;
+import com.okta.developer.service.RecentHealthDataService;
 import com.okta.developer.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -15,6 +21,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -42,8 +49,18 @@ public class PointsResource {
 
     private final PointsRepository pointsRepository;
 
-    public PointsResource(PointsRepository pointsRepository) {
+    private final PointsRollupService pointsRollupService;
+
+    private final RecentHealthDataService recentHealthDataService;
+
+    public PointsResource(
+        PointsRepository pointsRepository,
+        PointsRollupService pointsRollupService,
+        RecentHealthDataService recentHealthDataService
+    ) {
         this.pointsRepository = pointsRepository;
+        this.pointsRollupService = pointsRollupService;
+        this.recentHealthDataService = recentHealthDataService;
     }
 
     /**
@@ -60,6 +77,8 @@ public class PointsResource {
             throw new BadRequestAlertException("A new points cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Points result = pointsRepository.save(points);
+        pointsRollupService.onPointsChanged(null, result);
+        recentHealthDataService.evictPoints(null, result);
         return ResponseEntity
             .created(new URI("/api/points/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
@@ -89,11 +108,14 @@ public class PointsResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!pointsRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Points existingPoints = pointsRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        WeekKey previous = WeekKey.of(existingPoints);
 
         Points result = pointsRepository.save(points);
+        pointsRollupService.onPointsChanged(previous, result);
+        recentHealthDataService.evictPoints(previous, result);
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, points.getId().toString()))
@@ -124,13 +146,11 @@ public class PointsResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!pointsRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
+        // a single load, the entity stays managed and only its changed columns are written on commit
         Optional<Points> result = pointsRepository
-            .findById(points.getId())
+            .findById(id)
             .map(existingPoints -> {
+                WeekKey previous = WeekKey.of(existingPoints);
                 if (points.getDate() != null) {
                     existingPoints.setDate(points.getDate());
                 }
@@ -147,9 +167,11 @@ public class PointsResource {
                     existingPoints.setNotes(points.getNotes());
                 }
 
+                pointsRollupService.onPointsChanged(previous, existingPoints);
+
+                recentHealthDataService.evictPoints(previous, existingPoints);
                 return existingPoints;
-            })
-            .map(pointsRepository::save);
+            });
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -162,16 +184,30 @@ public class PointsResource {
      *
      * @param pageable the pagination information.
      * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
+     * @param from if set, only the points of the current user with a date from this one are returned.
+     * @param to if set, only the points of the current user with a date up to this one are returned, defaults to today
+     * when {@code from} is set.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of points in body.
      */
     @GetMapping("/points")
     public ResponseEntity<List<Points>> getAllPoints(
         @org.springdoc.api.annotations.ParameterObject Pageable pageable,
-        @RequestParam(required = false, defaultValue = "false") boolean eagerload
+        @RequestParam(required = false, defaultValue = "false") boolean eagerload,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
     ) {
         log.debug("REST request to get a page of Points");
         Page<Points> page;
-        if (eagerload) {
+        if (from != null || to != null) {
+            LocalDate end = to != null ? to : LocalDate.now();
+            if (from != null && from.isAfter(end)) {
+                throw new BadRequestAlertException("The from date is after the to date", ENTITY_NAME, "invalidrange");
+            }
+            page =
+                from != null
+                    ? pointsRepository.findAllByUserLoginAndDateBetween(getCurrentUserLogin(), from, end, pageable)
+                    : pointsRepository.findAllByUserLoginAndDateLessThanEqual(getCurrentUserLogin(), end, pageable);
+        } else if (eagerload) {
             page = pointsRepository.findAllWithEagerRelationships(pageable);
         } else {
             page = pointsRepository.findAll(pageable);
@@ -180,6 +216,51 @@ public class PointsResource {
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /points-by-week} : get the points of the current user summed by week.
+     *
+     * @param from the first day of the range, defaults to 12 weeks before {@code to}.
+     * @param to the last day of the range, defaults to today.
+     * @return the weekly totals, oldest first.
+     */
+    @GetMapping("/points-by-week")
+    public List<PointsPerPeriod> getPointsByWeek(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        log.debug("REST request to get Points by week : {}, {}", from, to);
+        LocalDate end = to != null ? to : LocalDate.now();
+        return pointsRollupService.getWeeklyTotals(getCurrentUserLogin(), from != null ? from : end.minusWeeks(12), end);
+    }
+
+    /**
+     * {@code GET  /points-by-month} : get the points of the current user summed by month.
+     *
+     * @param from the first day of the range, defaults to 12 months before {@code to}.
+     * @param to the last day of the range, defaults to today.
+     * @return the monthly totals, oldest first.
+     */
+    @GetMapping("/points-by-month")
+    public List<PointsPerPeriod> getPointsByMonth(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        log.debug("REST request to get Points by month : {}, {}", from, to);
+        LocalDate end = to != null ? to : LocalDate.now();
+        return pointsRepository.sumByMonth(getCurrentUserLogin(), from != null ? from : end.minusMonths(12), end);
+    }
+
+    /**
+     * {@code GET  /points-this-week} : get the points of the current user in the current week.
+     *
+     * @return the points, oldest first.
+     */
+    @GetMapping("/points-this-week")
+    public List<Points> getPointsThisWeek() {
+        log.debug("REST request to get the Points of this week");
+        return recentHealthDataService.getPointsThisWeek(getCurrentUserLogin());
+    }
+
     /**
      * {@code GET  /points/:id} : get the "id" points.
      *
@@ -202,10 +283,22 @@ public class PointsResource {
     @DeleteMapping("/points/{id}")
     public ResponseEntity<Void> deletePoints(@PathVariable Long id) {
         log.debug("REST request to delete Points : {}", id);
-        pointsRepository.deleteById(id);
+        pointsRepository
+            .findById(id)
+            .ifPresent(points -> {
+                pointsRepository.delete(points);
+                pointsRollupService.onPointsChanged(WeekKey.of(points), null);
+                recentHealthDataService.evictPoints(WeekKey.of(points), null);
+            });
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private String getCurrentUserLogin() {
+        return SecurityUtils
+            .getCurrentUserLogin()
+            .orElseThrow(() -> new BadRequestAlertException("Current user login not found", ENTITY_NAME, "nologin"));
+    }
 }
@@ -83,9 +83,7 @@ public class PreferencesResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!preferencesRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        preferencesRepository.findById(id).orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
 
         Preferences result = preferencesRepository.save(preferences);
         return ResponseEntity
@@ -118,12 +116,8 @@ public class PreferencesResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!preferencesRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<Preferences> result = preferencesRepository
-            .findById(preferences.getId())
+            .findById(id)
             .map(existingPreferences -> {
                 if (preferences.getWeeklyGoal() != null) {
                     existingPreferences.setWeeklyGoal(preferences.getWeeklyGoal());
@@ -133,8 +127,7 @@ public class PreferencesResource {
                 }
 
                 return existingPreferences;
-            })
-            .map(preferencesRepository::save);
+            });
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -2,11 +2,17 @@ package com.okta.developer.web.rest;
 
 import com.okta.developer.domain.Weight;
 import com.okta.developer.repository.WeightRepository;
+import com.okta.developer.repository.TableStatisticsRepository;
+import com.okta.developer.security.SecurityUtils;
+import com.okta.developer.service.RecentHealthDataService;
 import com.okta.developer.web.rest.errors.BadRequestAlertException;
+import com.okta.developer.web.rest.util.ScrollPaginationUtil;
+import com.okta.developer.web.rest.util.ScrollPaginationUtil.TimestampCursor;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -14,7 +20,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -42,8 +51,18 @@ public class WeightResource {
 
     private final WeightRepository weightRepository;
 
-    public WeightResource(WeightRepository weightRepository) {
+    private final TableStatisticsRepository tableStatisticsRepository;
+
+    private final RecentHealthDataService recentHealthDataService;
+
+    public WeightResource(
+        WeightRepository weightRepository,
+        TableStatisticsRepository tableStatisticsRepository,
+        RecentHealthDataService recentHealthDataService
+    ) {
         this.weightRepository = weightRepository;
+        this.tableStatisticsRepository = tableStatisticsRepository;
+        this.recentHealthDataService = recentHealthDataService;
     }
 
     /**
@@ -60,6 +79,7 @@ public class WeightResource {
             throw new BadRequestAlertException("A new weight cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Weight result = weightRepository.save(weight);
+        recentHealthDataService.evictLatestWeight(result);
         return ResponseEntity
             .created(new URI("/api/weights/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
@@ -89,9 +109,11 @@ public class WeightResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!weightRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        // the loaded row is in the persistence context, so save merges into it without selecting it again
+        Weight existingWeight = weightRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        recentHealthDataService.evictLatestWeight(existingWeight, weight);
 
         Weight result = weightRepository.save(weight);
         return ResponseEntity
@@ -124,12 +146,8 @@ public class WeightResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!weightRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<Weight> result = weightRepository
-            .findById(weight.getId())
+            .findById(id)
             .map(existingWeight -> {
                 if (weight.getTimestamp() != null) {
                     existingWeight.setTimestamp(weight.getTimestamp());
@@ -138,9 +156,9 @@ public class WeightResource {
                     existingWeight.setWeight(weight.getWeight());
                 }
 
+                recentHealthDataService.evictLatestWeight(existingWeight);
                 return existingWeight;
-            })
-            .map(weightRepository::save);
+            });
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -150,25 +168,72 @@ public class WeightResource {
 
     /**
      * {@code GET  /weights} : get all the weights.
+     * <p>
+     * Unless filtered by date, the weights are returned as a slice, with links to the first and next pages but no
+     * {@code COUNT} query. On PostgreSQL an estimated total is sent in {@code X-Estimated-Total-Count}.
      *
      * @param pageable the pagination information.
      * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
+     * @param from if set, only the weights of the current user with a timestamp from this one are returned.
+     * @param to if set, only the weights of the current user with a timestamp up to this one are returned, defaults to
+     * now when {@code from} is set.
+     * @param after if set, the weights older than this {@code <timestamp>,<id>} cursor are returned newest first,
+     * with a {@code rel="next"} link instead of a total count. An empty cursor starts from the newest.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of weights in body.
      */
     @GetMapping("/weights")
     public ResponseEntity<List<Weight>> getAllWeights(
         @org.springdoc.api.annotations.ParameterObject Pageable pageable,
-        @RequestParam(required = false, defaultValue = "false") boolean eagerload
+        @RequestParam(required = false, defaultValue = "false") boolean eagerload,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to,
+        @RequestParam(required = false) String after
     ) {
         log.debug("REST request to get a page of Weights");
-        Page<Weight> page;
+        if (after != null) {
+            return getAllWeightsAfter(after, pageable.getPageSize());
+        }
+        if (from != null || to != null) {
+            String login = SecurityUtils
+                .getCurrentUserLogin()
+                .orElseThrow(() -> new BadRequestAlertException("Current user login not found", ENTITY_NAME, "nologin"));
+            ZonedDateTime end = to != null ? to : ZonedDateTime.now();
+            if (from != null && from.isAfter(end)) {
+                throw new BadRequestAlertException("The from timestamp is after the to timestamp", ENTITY_NAME, "invalidrange");
+            }
+            Page<Weight> page = from != null
+                ? weightRepository.findAllByUserLoginAndTimestampBetween(login, from, end, pageable)
+                : weightRepository.findAllByUserLoginAndTimestampLessThanEqual(login, end, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        Slice<Weight> slice;
         if (eagerload) {
-            page = weightRepository.findAllWithEagerRelationships(pageable);
+            slice = weightRepository.findSliceWithEagerRelationships(pageable);
         } else {
-            page = weightRepository.findAll(pageable);
+            slice = weightRepository.findSliceBy(pageable);
         }
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        HttpHeaders headers = ScrollPaginationUtil.generateSliceHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            tableStatisticsRepository.estimateRowCount("weight")
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /weights/latest} : get the latest weight of the current user.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the weight with the most recent timestamp,
+     * or with status {@code 404 (Not Found)} if the current user has none.
+     */
+    @GetMapping("/weights/latest")
+    public ResponseEntity<Weight> getLatestWeight() {
+        log.debug("REST request to get the latest Weight");
+        String login = SecurityUtils
+            .getCurrentUserLogin()
+            .orElseThrow(() -> new BadRequestAlertException("Current user login not found", ENTITY_NAME, "nologin"));
+        return ResponseUtil.wrapOrNotFound(recentHealthDataService.getLatestWeight(login));
     }
 
     /**
@@ -193,10 +258,35 @@ public class WeightResource {
     @DeleteMapping("/weights/{id}")
     public ResponseEntity<Void> deleteWeight(@PathVariable Long id) {
         log.debug("REST request to delete Weight : {}", id);
-        weightRepository.deleteById(id);
+        weightRepository
+            .findById(id)
+            .ifPresent(weight -> {
+                weightRepository.delete(weight);
+                recentHealthDataService.evictLatestWeight(weight);
+            });
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private ResponseEntity<List<Weight>> getAllWeightsAfter(String after, int size) {
+        TimestampCursor cursor;
+        try {
+            cursor = TimestampCursor.parse(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        PageRequest pageRequest = PageRequest.ofSize(size);
+        List<Weight> weights = cursor == null
+            ? weightRepository.findAllByOrderByTimestampDescIdDesc(pageRequest)
+            : weightRepository.findAllBefore(cursor.timestamp(), cursor.id(), pageRequest);
+        HttpHeaders headers = ScrollPaginationUtil.generateKeysetHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            weights,
+            size,
+            weight -> new TimestampCursor(weight.getTimestamp(), weight.getId())
+        );
+        return ResponseEntity.ok().headers(headers).body(weights);
+    }
 }
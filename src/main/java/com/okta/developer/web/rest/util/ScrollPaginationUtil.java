@@ -0,0 +1,124 @@
+package com.okta.developer.web.rest.util;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Function;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for infinite scroll pagination, where only a link to the next page is returned, so no {@code COUNT}
+ * query is needed.
+ */
+public final class ScrollPaginationUtil {
+
+    private static final String HEADER_X_ESTIMATED_TOTAL_COUNT = "X-Estimated-Total-Count";
+
+    private static final String HEADER_LINK_FORMAT = "<%s>; rel=\"%s\"";
+
+    private ScrollPaginationUtil() {}
+
+    /**
+     * Generates the {@code Link} header of a slice, with the {@code rel="next"} link when there is a next page.
+     * <p>
+     * The {@code rel="first"} link is always present: the infinite scroll lists of the client expect a {@code Link}
+     * header and only append the pages of a list whose first and last links differ.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param slice the slice.
+     * @param estimatedTotal the estimated total number of elements, sent as {@code X-Estimated-Total-Count} if present.
+     * @param <T> the type of the elements.
+     * @return the headers.
+     */
+    public static <T> HttpHeaders generateSliceHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice, OptionalLong estimatedTotal) {
+        HttpHeaders headers = new HttpHeaders();
+        estimatedTotal.ifPresent(total -> headers.add(HEADER_X_ESTIMATED_TOTAL_COUNT, Long.toString(total)));
+        StringBuilder link = new StringBuilder();
+        if (slice.hasNext()) {
+            link.append(prepareLink(uriBuilder, slice.getNumber() + 1, slice.getSize(), "next")).append(",");
+        }
+        link.append(prepareLink(uriBuilder, 0, slice.getSize(), "first"));
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    /**
+     * Generates the {@code Link} header to the page following a keyset (seek) page.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param content the entities of the page, newest first.
+     * @param size the requested page size.
+     * @param cursorOf the function returning the cursor of an entity.
+     * @param <T> the type of the entities.
+     * @return the headers, with a {@code rel="next"} link if the page is full.
+     */
+    public static <T> HttpHeaders generateKeysetHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        List<T> content,
+        int size,
+        Function<T, TimestampCursor> cursorOf
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        if (!content.isEmpty() && content.size() >= size) {
+            String next = uriBuilder
+                .replaceQueryParam("after", cursorOf.apply(content.get(content.size() - 1)))
+                .replaceQueryParam("size", size)
+                .toUriString();
+            headers.add(HttpHeaders.LINK, String.format(HEADER_LINK_FORMAT, escape(next), "next"));
+        }
+        return headers;
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
+        String uri = uriBuilder.replaceQueryParam("page", pageNumber).replaceQueryParam("size", pageSize).toUriString();
+        return String.format(HEADER_LINK_FORMAT, escape(uri), relType);
+    }
+
+    // commas and semicolons separate the links and their parameters
+    private static String escape(String uri) {
+        return uri.replace(",", "%2C").replace(";", "%3B");
+    }
+
+    /**
+     * The position of an entity in a list ordered by timestamp then id, written as {@code <instant>,<id>}.
+     *
+     * @param timestamp the timestamp of the entity.
+     * @param id the id of the entity.
+     */
+    public record TimestampCursor(ZonedDateTime timestamp, Long id) {
+        /**
+         * Parses a cursor.
+         *
+         * @param value the cursor, for example {@code 2022-10-01T08:00:00Z,1201}.
+         * @return the cursor, or {@code null} if the value is empty, to start from the newest entity.
+         * @throws IllegalArgumentException if the value is not a valid cursor.
+         */
+        public static TimestampCursor parse(String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            int separator = value.lastIndexOf(',');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+            try {
+                return new TimestampCursor(
+                    Instant.parse(value.substring(0, separator).trim()).atZone(ZoneOffset.UTC),
+                    Long.valueOf(value.substring(separator + 1).trim())
+                );
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + value, e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return timestamp.toInstant() + "," + id;
+        }
+    }
+}
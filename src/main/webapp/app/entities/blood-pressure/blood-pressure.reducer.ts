@@ -93,7 +93,6 @@ export const BloodPressureSlice = createEntitySlice({
           loading: false,
           links,
           entities: loadMoreDataWhenScrolled(state.entities, data, links),
-          totalItems: parseInt(headers['x-total-count'], 10),
         };
       })
       .addMatcher(isFulfilled(createEntity, updateEntity, partialUpdateEntity), (state, action) => {
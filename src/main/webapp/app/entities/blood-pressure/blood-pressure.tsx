@@ -26,7 +26,6 @@ export const BloodPressure = () => {
 
   const bloodPressureList = useAppSelector(state => state.bloodPressure.entities);
   const loading = useAppSelector(state => state.bloodPressure.loading);
-  const totalItems = useAppSelector(state => state.bloodPressure.totalItems);
   const links = useAppSelector(state => state.bloodPressure.links);
   const entity = useAppSelector(state => state.bloodPressure.entity);
   const updateSuccess = useAppSelector(state => state.bloodPressure.updateSuccess);
@@ -114,7 +114,7 @@ describe('Entities reducer tests', () => {
 
   describe('Successes', () => {
     it('should fetch all entities', () => {
-      const payload = { data: [{ 1: 'fake1' }, { 2: 'fake2' }], headers: { 'x-total-count': 123, link: ';' } };
+      const payload = { data: [{ 1: 'fake1' }, { 2: 'fake2' }], headers: { link: ';' } };
       const links = parseHeaderForLinks(payload.headers.link);
       expect(
         reducer(undefined, {
@@ -125,7 +125,6 @@ describe('Entities reducer tests', () => {
         ...initialState,
         links,
         loading: false,
-        totalItems: payload.headers['x-total-count'],
         entities: payload.data,
       });
     });
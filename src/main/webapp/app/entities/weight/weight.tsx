@@ -26,7 +26,6 @@ export const Weight = () => {
 
   const weightList = useAppSelector(state => state.weight.entities);
   const loading = useAppSelector(state => state.weight.loading);
-  const totalItems = useAppSelector(state => state.weight.totalItems);
   const links = useAppSelector(state => state.weight.links);
   const entity = useAppSelector(state => state.weight.entity);
   const updateSuccess = useAppSelector(state => state.weight.updateSuccess);
@@ -17,6 +17,18 @@ import { APP_TIMESTAMP_FORMAT, APP_TWO_DIGITS_AFTER_POINT_NUMBER_FORMAT, APP_WHO
 import { getSystemMetrics, getSystemThreadDump } from '../administration.reducer';
 import { useAppDispatch, useAppSelector } from 'app/config/store';
 
+const missRatio = (cacheMetric: any) => {
+  const hits = cacheMetric['cache.gets.hit'] ?? 0;
+  const misses = cacheMetric['cache.gets.miss'] ?? 0;
+  return hits + misses > 0 ? misses / (hits + misses) : 0;
+};
+
+/**
+ * Orders the cache regions by miss ratio, the worst performing first.
+ */
+export const sortByMissRatio = (cacheMetrics: Record<string, any>) =>
+  Object.fromEntries(Object.entries(cacheMetrics).sort(([, a], [, b]) => missRatio(b) - missRatio(a)));
+
 export const MetricsPage = () => {
   const dispatch = useAppDispatch();
   const metrics = useAppSelector(state => state.administration.metrics);
@@ -97,7 +109,10 @@ export const MetricsPage = () => {
       {metrics?.cache ? (
         <Row>
           <Col sm="12">
-            <CacheMetrics cacheMetrics={metrics.cache} twoDigitAfterPointFormat={APP_TWO_DIGITS_AFTER_POINT_NUMBER_FORMAT} />
+            <CacheMetrics
+              cacheMetrics={sortByMissRatio(metrics.cache)}
+              twoDigitAfterPointFormat={APP_TWO_DIGITS_AFTER_POINT_NUMBER_FORMAT}
+            />
           </Col>
         </Row>
       ) : (
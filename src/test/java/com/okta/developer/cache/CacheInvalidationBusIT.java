@@ -0,0 +1,148 @@
+package com.okta.developer.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.okta.developer.IntegrationTest;
+import com.okta.developer.repository.UserRepository;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link CacheInvalidationBus}, with the messages of another node written to the
+ * {@code cache_invalidation} table.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.cache.mode=invalidation")
+class CacheInvalidationBusIT {
+
+    private static final String ANOTHER_NODE = "another-node";
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private String key;
+
+    private Cache cache;
+
+    @BeforeEach
+    void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        key = "bus-" + RandomStringUtils.randomAlphabetic(8).toLowerCase();
+        cache = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        cache.evict(key);
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("delete from cache_invalidation where cache_key = ?", key));
+    }
+
+    private List<String> publishedNodeIds() {
+        return jdbcTemplate.queryForList(
+            "select node_id from cache_invalidation where cache_name = ? and cache_key = ?",
+            String.class,
+            UserRepository.USERS_BY_LOGIN_CACHE,
+            key
+        );
+    }
+
+    private void sendFromAnotherNode(LocalDateTime createdDate) {
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.update(
+                "insert into cache_invalidation (node_id, cache_name, cache_key, created_date) values (?, ?, ?, ?)",
+                ANOTHER_NODE,
+                UserRepository.USERS_BY_LOGIN_CACHE,
+                key,
+                createdDate
+            )
+        );
+    }
+
+    @Test
+    void testEvictPublishesAMessage() {
+        cache.put(key, "cached");
+
+        cacheInvalidationBus.evict(UserRepository.USERS_BY_LOGIN_CACHE, List.of(key));
+
+        assertThat(cache.get(key)).isNull();
+        assertThat(publishedNodeIds()).hasSize(1).doesNotContain(ANOTHER_NODE);
+    }
+
+    @Test
+    void testEvictPublishesOnlyOnceTheTransactionCommits() {
+        transactionTemplate.executeWithoutResult(status -> {
+            cacheInvalidationBus.evict(UserRepository.USERS_BY_LOGIN_CACHE, List.of(key));
+            status.setRollbackOnly();
+        });
+        assertThat(publishedNodeIds()).isEmpty();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            cacheInvalidationBus.evict(UserRepository.USERS_BY_LOGIN_CACHE, List.of(key));
+            cacheInvalidationBus.evict(UserRepository.USERS_BY_LOGIN_CACHE, List.of(key));
+        });
+        assertThat(publishedNodeIds()).hasSize(1);
+    }
+
+    @Test
+    void testPollAppliesTheEvictionsOfAnotherNode() {
+        cache.put(key, "cached");
+        sendFromAnotherNode(LocalDateTime.now(ZoneOffset.UTC));
+
+        cacheInvalidationBus.poll();
+
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    void testPollAppliesAMessageOnce() {
+        sendFromAnotherNode(LocalDateTime.now(ZoneOffset.UTC));
+        cacheInvalidationBus.poll();
+        cache.put(key, "cached");
+
+        cacheInvalidationBus.poll();
+
+        assertThat(cache.get(key)).isNotNull();
+    }
+
+    @Test
+    void testPollIgnoresTheMessagesOfThisNode() {
+        cacheInvalidationBus.evict(UserRepository.USERS_BY_LOGIN_CACHE, List.of(key));
+        cache.put(key, "cached");
+
+        cacheInvalidationBus.poll();
+
+        assertThat(cache.get(key)).isNotNull();
+    }
+
+    @Test
+    void testPurgeDeletesTheExpiredMessages() {
+        sendFromAnotherNode(LocalDateTime.now(ZoneOffset.UTC).minusDays(1));
+
+        cacheInvalidationBus.purge();
+
+        assertThat(publishedNodeIds()).isEmpty();
+    }
+}
@@ -0,0 +1,58 @@
+package com.okta.developer.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Unit tests for the validation of the {@link ApplicationProperties}.
+ */
+class ApplicationPropertiesTest {
+
+    private static ValidatorFactory validatorFactory;
+
+    private static Validator validator;
+
+    @BeforeAll
+    static void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        validatorFactory.close();
+    }
+
+    private ApplicationProperties withRegion(DataSize maxHeapSize, DataSize offHeapSize) {
+        ApplicationProperties properties = new ApplicationProperties();
+        ApplicationProperties.Cache.Region region = new ApplicationProperties.Cache.Region();
+        region.setMaxHeapSize(maxHeapSize);
+        region.setOffHeapSize(offHeapSize);
+        properties.getCache().getRegions().put("region", region);
+        return properties;
+    }
+
+    @Test
+    void testOffHeapSmallerThanHeapIsRejected() {
+        assertThat(validator.validate(withRegion(DataSize.ofMegabytes(64), DataSize.ofMegabytes(32))))
+            .singleElement()
+            .satisfies(violation -> assertThat(violation.getMessage()).isEqualTo("off-heap-size must be larger than max-heap-size"));
+    }
+
+    @Test
+    void testOffHeapLargerThanHeapIsAccepted() {
+        assertThat(validator.validate(withRegion(DataSize.ofMegabytes(32), DataSize.ofMegabytes(64)))).isEmpty();
+    }
+
+    @Test
+    void testOffHeapBehindAnEntryCountIsAccepted() {
+        assertThat(validator.validate(withRegion(null, DataSize.ofMegabytes(32)))).isEmpty();
+    }
+}
@@ -0,0 +1,134 @@
+package com.okta.developer.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.okta.developer.IntegrationTest;
+import com.okta.developer.cache.CacheInvalidationBus;
+import com.okta.developer.domain.User;
+import com.okta.developer.repository.UserRepository;
+import com.okta.developer.service.RecentHealthDataService;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.ehcache.config.CacheRuntimeConfiguration;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.jcache.JCacheCache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Integration tests for the region settings of the {@link CacheConfiguration}, with the Caffeine provider of the
+ * {@code @Cacheable} regions.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "application.cache.cacheable-provider=caffeine",
+        "application.cache.mode=invalidation",
+        "application.cache.regions[latestWeight].max-heap-size=1MB",
+        "application.cache.regions[latestWeight].off-heap-size=4MB",
+    }
+)
+class CacheConfigurationIT {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private javax.cache.CacheManager jCacheManager;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private String login;
+
+    @BeforeEach
+    void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        login = "caffeine-" + RandomStringUtils.randomAlphabetic(8).toLowerCase();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).evict(login);
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.update("delete from cache_invalidation where cache_key = ?", login)
+        );
+    }
+
+    @Test
+    void testCacheableRegionsAreServedByCaffeine() {
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).isInstanceOf(CaffeineCache.class);
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).isInstanceOf(CaffeineCache.class);
+    }
+
+    @Test
+    void testHibernateRegionsStayInEhcache() {
+        assertThat(cacheManager.getCache(User.class.getName())).isInstanceOf(JCacheCache.class);
+        assertThat(jCacheManager.getCache(User.class.getName())).isNotNull();
+        assertThat(jCacheManager.getCache(User.class.getName() + ".authorities")).isNotNull();
+    }
+
+    @Test
+    void testBusEvictsTheCaffeineRegions() {
+        Cache cache = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        cache.put(login, "local");
+
+        cacheInvalidationBus.evict(UserRepository.USERS_BY_LOGIN_CACHE, List.of(login));
+
+        assertThat(cache.get(login)).isNull();
+
+        cache.put(login, "remote");
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.update(
+                "insert into cache_invalidation (node_id, cache_name, cache_key, created_date) values (?, ?, ?, ?)",
+                "another-node",
+                UserRepository.USERS_BY_LOGIN_CACHE,
+                login,
+                LocalDateTime.now(ZoneOffset.UTC)
+            )
+        );
+
+        cacheInvalidationBus.poll();
+
+        assertThat(cache.get(login)).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRegionSettingsSizeTheEhcacheTiers() {
+        Eh107Configuration<Object, Object> configuration = jCacheManager
+            .getCache(RecentHealthDataService.LATEST_WEIGHT_CACHE)
+            .getConfiguration(Eh107Configuration.class);
+        ResourcePools resourcePools = configuration.unwrap(CacheRuntimeConfiguration.class).getResourcePools();
+
+        SizedResourcePool heap = resourcePools.getPoolForResource(ResourceType.Core.HEAP);
+        SizedResourcePool offHeap = resourcePools.getPoolForResource(ResourceType.Core.OFFHEAP);
+        assertThat(heap.getSize()).isEqualTo(DataSize.ofMegabytes(1).toBytes());
+        assertThat(heap.getUnit()).isEqualTo(MemoryUnit.B);
+        assertThat(offHeap.getSize()).isEqualTo(DataSize.ofMegabytes(4).toBytes());
+    }
+}
@@ -0,0 +1,55 @@
+package com.okta.developer.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.okta.developer.IntegrationTest;
+import com.okta.developer.service.RecentHealthDataService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Integration tests for the metrics of the cache regions, from the statistics enabled by {@link CacheConfiguration}
+ * and the latencies exported by {@link CacheMetricsConfiguration}.
+ */
+@IntegrationTest
+class CacheMetricsConfigurationIT {
+
+    private static final String CACHE_NAME = RecentHealthDataService.LATEST_WEIGHT_CACHE;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tags("cache", CACHE_NAME, "result", result).functionCounter().count();
+    }
+
+    @Test
+    void testRegionsCountHitsAndMisses() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        String key = "metrics-" + RandomStringUtils.randomAlphabetic(8);
+        double hits = gets("hit");
+        double misses = gets("miss");
+
+        cache.get(key);
+        cache.put(key, "value");
+        cache.get(key);
+
+        assertThat(gets("hit")).isEqualTo(hits + 1);
+        assertThat(gets("miss")).isEqualTo(misses + 1);
+        cache.evict(key);
+    }
+
+    @Test
+    void testRegionsExportTheirLatency() {
+        assertThat(meterRegistry.find("cache.gets.latency").tag("cache", CACHE_NAME).gauge()).isNotNull();
+        assertThat(meterRegistry.find("cache.puts.latency").tag("cache", CACHE_NAME).gauge()).isNotNull();
+        assertThat(meterRegistry.find("cache.removals.latency").tag("cache", CACHE_NAME).gauge()).isNotNull();
+    }
+}
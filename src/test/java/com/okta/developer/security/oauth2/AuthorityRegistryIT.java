@@ -0,0 +1,111 @@
+package com.okta.developer.security.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.okta.developer.IntegrationTest;
+import com.okta.developer.cache.CacheInvalidationBus;
+import com.okta.developer.repository.AuthorityRepository;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link AuthorityRegistry}, with the evictions of another node read from the
+ * {@code cache_invalidation} table.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.cache.mode=invalidation")
+class AuthorityRegistryIT {
+
+    @Autowired
+    private AuthorityRegistry authorityRegistry;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private String authorityName;
+
+    @BeforeEach
+    void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        authorityName = "ROLE_REGISTRY_" + RandomStringUtils.randomAlphabetic(6).toUpperCase();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from jhi_authority where name = ?", authorityName);
+            jdbcTemplate.update("delete from cache_invalidation where cache_key = ?", authorityName);
+        });
+    }
+
+    private void ensureExists() {
+        transactionTemplate.executeWithoutResult(status -> authorityRegistry.ensureExists(List.of(authorityName)));
+    }
+
+    private void deleteAuthority() {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("delete from jhi_authority where name = ?", authorityName));
+    }
+
+    private void deleteOnAnotherNode() {
+        deleteAuthority();
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.update(
+                "insert into cache_invalidation (node_id, cache_name, cache_key, created_date) values (?, ?, ?, ?)",
+                "another-node",
+                AuthorityRegistry.CACHE_NAME,
+                authorityName,
+                LocalDateTime.now(ZoneOffset.UTC)
+            )
+        );
+    }
+
+    @Test
+    void testEnsureExistsInsertsMissingAuthority() {
+        ensureExists();
+
+        assertThat(authorityRepository.existsById(authorityName)).isTrue();
+    }
+
+    @Test
+    void testEnsureExistsInsertsAuthorityDeletedOnAnotherNode() {
+        ensureExists();
+        deleteOnAnotherNode();
+
+        cacheInvalidationBus.poll();
+        ensureExists();
+
+        assertThat(authorityRepository.existsById(authorityName)).isTrue();
+    }
+
+    @Test
+    void testEvictRemovesAuthorityFromRegistry() {
+        ensureExists();
+        deleteAuthority();
+
+        authorityRegistry.evict(authorityName);
+        ensureExists();
+
+        assertThat(authorityRepository.existsById(authorityName)).isTrue();
+    }
+}
@@ -4,6 +4,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -11,19 +13,28 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.okta.developer.IntegrationTest;
 import com.okta.developer.security.AuthoritiesConstants;
 import com.okta.developer.security.SecurityUtils;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 @IntegrationTest
 class CustomClaimConverterIT {
@@ -34,6 +45,7 @@ class CustomClaimConverterIT {
     private static final String FULL_NAME = NAME + " " + FAMILY_NAME;
     private static final String NAME_SUFFIX = "Sr.";
     private static final String EMAIL = "john.doe@gmail.com";
+    private static final String UPDATED_EMAIL = "john.doe@example.com";
 
     private final ObjectMapper mapper = new ObjectMapper();
 
@@ -62,6 +74,18 @@ class CustomClaimConverterIT {
             .thenReturn(ResponseEntity.ok(userInfo));
     }
 
+    private void mockHttpGetUserInfoFailure() {
+        when(
+            restTemplate.exchange(
+                eq("https://api.jhipster.org/user"),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                ArgumentMatchers.<Class<ObjectNode>>any()
+            )
+        )
+            .thenThrow(new RestClientException("Userinfo endpoint unavailable"));
+    }
+
     @Test
     void testConvert() {
         // GIVEN
@@ -205,4 +229,100 @@ class CustomClaimConverterIT {
             })
             .doesNotThrowAnyException();
     }
+
+    @Test
+    void testConvert_refreshesStaleUserInfoInBackground() {
+        // GIVEN
+        AtomicLong nanos = new AtomicLong();
+        customClaimConverter =
+            new CustomClaimConverter(clientRegistrationRepository.findByRegistrationId("oidc"), restTemplate, nanos::get, Runnable::run);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", "123");
+        // AND
+        ObjectNode user = mapper.createObjectNode();
+        user.put("preferred_username", USERNAME);
+        user.put("email", EMAIL);
+        mockHttpGetUserInfo(user);
+        assertThat(customClaimConverter.convert(claims)).containsEntry("email", EMAIL);
+        // AND
+        ObjectNode updatedUser = mapper.createObjectNode();
+        updatedUser.put("preferred_username", USERNAME);
+        updatedUser.put("email", UPDATED_EMAIL);
+        mockHttpGetUserInfo(updatedUser);
+        nanos.addAndGet(Duration.ofMinutes(20).toNanos());
+
+        // WHEN the stale user info is read, THEN it's returned while it's reloaded
+        assertThat(customClaimConverter.convert(claims)).containsEntry("email", EMAIL);
+        assertThat(customClaimConverter.convert(claims)).containsEntry("email", UPDATED_EMAIL);
+    }
+
+    @Test
+    void testConvert_keepsUserInfoWhenRefreshFails() {
+        // GIVEN
+        AtomicLong nanos = new AtomicLong();
+        customClaimConverter =
+            new CustomClaimConverter(clientRegistrationRepository.findByRegistrationId("oidc"), restTemplate, nanos::get, Runnable::run);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", "123");
+        // AND
+        ObjectNode user = mapper.createObjectNode();
+        user.put("preferred_username", USERNAME);
+        user.put("email", EMAIL);
+        mockHttpGetUserInfo(user);
+        assertThat(customClaimConverter.convert(claims)).containsEntry("email", EMAIL);
+        // AND
+        mockHttpGetUserInfoFailure();
+        nanos.addAndGet(Duration.ofMinutes(20).toNanos());
+
+        // WHEN the reloads fail, THEN the cached user info is still returned
+        assertThat(customClaimConverter.convert(claims)).containsEntry("email", EMAIL);
+        assertThat(customClaimConverter.convert(claims)).containsEntry("email", EMAIL);
+    }
+
+    @Test
+    void testConvert_reloadsWithTheTokenOfTheLatestRequest() {
+        // GIVEN
+        AtomicLong nanos = new AtomicLong();
+        customClaimConverter =
+            new CustomClaimConverter(clientRegistrationRepository.findByRegistrationId("oidc"), restTemplate, nanos::get, Runnable::run);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", "123");
+        ObjectNode user = mapper.createObjectNode();
+        user.put("preferred_username", USERNAME);
+        mockHttpGetUserInfo(user);
+        RequestAttributes previousAttributes = RequestContextHolder.getRequestAttributes();
+        try {
+            convertWithToken(claims, "first-token");
+            nanos.addAndGet(Duration.ofMinutes(20).toNanos());
+
+            // WHEN the read of a request with a new token triggers the reload
+            convertWithToken(claims, "second-token");
+        } finally {
+            RequestContextHolder.setRequestAttributes(previousAttributes);
+        }
+
+        // THEN the reload uses the new token
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<HttpEntity<?>> requests = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, atLeastOnce())
+            .exchange(
+                eq("https://api.jhipster.org/user"),
+                eq(HttpMethod.GET),
+                requests.capture(),
+                ArgumentMatchers.<Class<ObjectNode>>any()
+            );
+        List<String> authorizations = requests
+            .getAllValues()
+            .stream()
+            .map(request -> request.getHeaders().getFirst("Authorization"))
+            .toList();
+        assertThat(authorizations).containsExactly("Bearer first-token", "Bearer second-token");
+    }
+
+    private void convertWithToken(Map<String, Object> claims, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        customClaimConverter.convert(claims);
+    }
 }
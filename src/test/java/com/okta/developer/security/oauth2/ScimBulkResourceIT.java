@@ -0,0 +1,180 @@
+package com.okta.developer.security.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.okta.developer.IntegrationTest;
+import com.okta.developer.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for the SCIM {@code /v2/Bulk} endpoint, {@link ScimBulkResource}.
+ */
+@IntegrationTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = "application.scim.bulk.chunk-size=2")
+class ScimBulkResourceIT {
+
+    private static final String BULK_URL = "/scim/v2/Bulk";
+
+    private static final MediaType SCIM_JSON = MediaType.valueOf("application/scim+json");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private String prefix;
+
+    private final List<String> createdIds = new ArrayList<>();
+
+    @BeforeEach
+    void initTest() {
+        prefix = "bulk" + RandomStringUtils.randomAlphabetic(6).toLowerCase();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        createdIds.stream().filter(userRepository::existsById).forEach(userRepository::deleteById);
+    }
+
+    private ObjectNode userOperation(String name, String lastName) {
+        String id = prefix + "-" + name;
+        createdIds.add(id);
+        ObjectNode data = mapper.createObjectNode();
+        data.putArray("schemas").add("urn:ietf:params:scim:schemas:core:2.0:User");
+        data.put("externalId", id);
+        data.put("userName", id + "@example.com");
+        data.put("active", true);
+        data.putObject("name").put("givenName", name).put("familyName", lastName);
+        data.putArray("emails").addObject().put("primary", true).put("value", id + "@example.com");
+
+        ObjectNode operation = mapper.createObjectNode();
+        operation.put("method", "POST");
+        operation.put("path", "/Users");
+        operation.put("bulkId", name);
+        operation.set("data", data);
+        return operation;
+    }
+
+    private ObjectNode putOperation(String name, String externalName) {
+        ObjectNode operation = userOperation(externalName, "Smith");
+        operation.put("method", "PUT");
+        operation.put("path", "/Users/" + prefix + "-" + name);
+        operation.remove("bulkId");
+        return operation;
+    }
+
+    private ResponseEntity<String> postBulk(String url, Integer failOnErrors, ObjectNode... operations) {
+        ObjectNode request = mapper.createObjectNode();
+        request.putArray("schemas").add("urn:ietf:params:scim:api:messages:2.0:BulkRequest");
+        if (failOnErrors != null) {
+            request.put("failOnErrors", failOnErrors);
+        }
+        ArrayNode array = request.putArray("Operations");
+        for (ObjectNode operation : operations) {
+            array.add(operation);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(SCIM_JSON);
+        headers.setAccept(List.of(SCIM_JSON));
+        return restTemplate.postForEntity(url, new HttpEntity<>(request.toString(), headers), String.class);
+    }
+
+    private List<String> statuses(ResponseEntity<String> response) throws Exception {
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<String> statuses = new ArrayList<>();
+        for (JsonNode operation : mapper.readTree(response.getBody()).path("Operations")) {
+            JsonNode status = operation.path("status");
+            statuses.add(status.isObject() ? status.path("code").asText() : status.asText());
+        }
+        return statuses;
+    }
+
+    @Test
+    void testReturnsTheStatusOfEveryOperation() throws Exception {
+        ResponseEntity<String> response = postBulk(
+            BULK_URL,
+            null,
+            userOperation("alice", "Smith"),
+            userOperation("bob", "Jones"),
+            userOperation("alice", "Smith")
+        );
+
+        assertThat(statuses(response)).containsExactly("201", "201", "409");
+        assertThat(userRepository.existsById(prefix + "-alice")).isTrue();
+        assertThat(userRepository.existsById(prefix + "-bob")).isTrue();
+    }
+
+    @Test
+    void testStopsAfterTheChunkWhereFailOnErrorsIsReached() throws Exception {
+        ResponseEntity<String> response = postBulk(
+            BULK_URL,
+            1,
+            userOperation("alice", "Smith"),
+            userOperation("alice", "Smith"),
+            userOperation("carol", "White")
+        );
+
+        assertThat(statuses(response)).containsExactly("201", "409");
+        assertThat(userRepository.existsById(prefix + "-carol")).isFalse();
+    }
+
+    @Test
+    void testRollsBackTheChunkOfAFailedWrite() throws Exception {
+        // the last name is longer than the 50 characters of the column
+        ResponseEntity<String> response = postBulk(
+            BULK_URL,
+            null,
+            userOperation("alice", "Smith"),
+            userOperation("bob", "J".repeat(60)),
+            userOperation("carol", "White")
+        );
+
+        assertThat(statuses(response)).containsExactly("500", "500", "201");
+        assertThat(userRepository.existsById(prefix + "-alice")).isFalse();
+        assertThat(userRepository.existsById(prefix + "-bob")).isFalse();
+        assertThat(userRepository.existsById(prefix + "-carol")).isTrue();
+    }
+
+    @Test
+    void testRejectsAPutWhoseExternalIdIsAnotherUser() throws Exception {
+        ResponseEntity<String> response = postBulk(
+            BULK_URL,
+            null,
+            userOperation("alice", "Smith"),
+            putOperation("alice", "bob"),
+            putOperation("alice", "alice")
+        );
+
+        assertThat(statuses(response)).containsExactly("201", "400", "200");
+        assertThat(userRepository.existsById(prefix + "-bob")).isFalse();
+    }
+
+    @Test
+    void testScimpleBulkEndpointIsNotServed() {
+        ResponseEntity<String> response = postBulk("/scim/Bulk", null, userOperation("alice", "Smith"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(userRepository.existsById(prefix + "-alice")).isFalse();
+    }
+}
@@ -0,0 +1,234 @@
+package com.okta.developer.security.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.okta.developer.IntegrationTest;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.directory.scim.spec.filter.Filter;
+import org.apache.directory.scim.spec.filter.PageRequest;
+import org.apache.directory.scim.spec.resources.ScimGroup;
+import org.apache.directory.scim.spec.schema.ResourceReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the SCIM {@code /Groups} endpoints served by SCIMple with the {@link ScimGroupService}.
+ */
+@IntegrationTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ScimGroupServiceIT {
+
+    private static final int GROUP_SIZE = 2000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ScimGroupService scimGroupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private String prefix;
+
+    private String groupId;
+
+    private String createdGroupId;
+
+    private List<String> memberIds;
+
+    private String newMemberId;
+
+    @BeforeEach
+    void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        prefix = "group" + RandomStringUtils.randomAlphabetic(6).toLowerCase();
+        groupId = "ROLE_" + prefix.toUpperCase();
+        createdGroupId = groupId + "_CREATED";
+        memberIds = IntStream.range(0, GROUP_SIZE).mapToObj(i -> prefix + "-" + i).toList();
+        newMemberId = prefix + "-new";
+
+        List<Object[]> users = new ArrayList<>();
+        memberIds.forEach(id -> users.add(new Object[] { id, id, Timestamp.from(Instant.now()) }));
+        users.add(new Object[] { newMemberId, newMemberId, Timestamp.from(Instant.now()) });
+        List<Object[]> members = memberIds.stream().map(id -> new Object[] { id, groupId }).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("insert into jhi_authority (name) values (?)", groupId);
+            jdbcTemplate.batchUpdate(
+                "insert into jhi_user (id, login, activated, created_by, created_date) values (?, ?, true, 'test', ?)",
+                users
+            );
+            jdbcTemplate.batchUpdate("insert into jhi_user_authority (user_id, authority_name) values (?, ?)", members);
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from jhi_user_authority where authority_name in (?, ?)", groupId, createdGroupId);
+            jdbcTemplate.update("delete from jhi_authority where name in (?, ?)", groupId, createdGroupId);
+            jdbcTemplate.update("delete from jhi_user where id like ?", prefix + "-%");
+        });
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return httpClient.send(request.header("Accept", "application/scim+json").build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI groupUri(String query) {
+        return URI.create("http://localhost:" + port + "/scim/Groups/" + groupId + (query != null ? "?" + query : ""));
+    }
+
+    private List<String> storedMemberIds() {
+        return storedMemberIds(groupId);
+    }
+
+    private List<String> storedMemberIds(String name) {
+        return jdbcTemplate.queryForList("select user_id from jhi_user_authority where authority_name = ?", String.class, name);
+    }
+
+    @Test
+    void testPatchLargeGroupWritesOnlyTheChangedMembers() throws Exception {
+        ObjectNode patch = mapper.createObjectNode();
+        patch.putArray("schemas").add("urn:ietf:params:scim:api:messages:2.0:PatchOp");
+        ArrayNode operations = patch.putArray("Operations");
+        ObjectNode add = operations.addObject();
+        add.put("op", "add").put("path", "members").putArray("value").addObject().put("value", newMemberId);
+        ObjectNode remove = operations.addObject();
+        remove.put("op", "remove").put("path", "members[value eq \"" + memberIds.get(0) + "\"]");
+
+        HttpResponse<String> response = send(
+            HttpRequest
+                .newBuilder(groupUri(null))
+                .header("Content-Type", "application/scim+json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(patch.toString()))
+        );
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        // the members aren't loaded again to be returned
+        assertThat(mapper.readTree(response.body()).has("members")).isFalse();
+        List<String> stored = storedMemberIds();
+        assertThat(stored).hasSize(GROUP_SIZE).contains(newMemberId).doesNotContain(memberIds.get(0));
+    }
+
+    private HttpResponse<String> removeMembers(String path) throws Exception {
+        ObjectNode patch = mapper.createObjectNode();
+        patch.putArray("schemas").add("urn:ietf:params:scim:api:messages:2.0:PatchOp");
+        patch.putArray("Operations").addObject().put("op", "remove").put("path", path);
+        return send(
+            HttpRequest
+                .newBuilder(groupUri(null))
+                .header("Content-Type", "application/scim+json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(patch.toString()))
+        );
+    }
+
+    @Test
+    void testPatchRejectsMembersFiltersOtherThanValueEquals() throws Exception {
+        List<String> filters = List.of(
+            "members[value ne \"" + memberIds.get(0) + "\"]",
+            "members[value co \"" + prefix + "\"]",
+            "members[not (value eq \"" + memberIds.get(0) + "\")]",
+            "members[display eq \"" + memberIds.get(0) + "\"]"
+        );
+
+        for (String filter : filters) {
+            assertThat(removeMembers(filter).statusCode()).as(filter).isEqualTo(400);
+        }
+        assertThat(storedMemberIds()).hasSize(GROUP_SIZE);
+    }
+
+    @Test
+    void testPatchRemovesTheMembersSelectedByValue() throws Exception {
+        HttpResponse<String> response = removeMembers(
+            "members[value eq \"" + memberIds.get(0) + "\" or value eq \"" + memberIds.get(1) + "\"]"
+        );
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(storedMemberIds()).hasSize(GROUP_SIZE - 2).doesNotContain(memberIds.get(0), memberIds.get(1));
+    }
+
+    @Test
+    void testPatchRemovesAllMembersOfABareMembersPath() throws Exception {
+        HttpResponse<String> response = removeMembers("members");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(storedMemberIds()).isEmpty();
+    }
+
+    @Test
+    void testGetExcludingMembers() throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(groupUri("excludedAttributes=members")).GET());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        JsonNode group = mapper.readTree(response.body());
+        assertThat(group.path("displayName").asText()).isEqualTo(groupId);
+        assertThat(group.has("members")).isFalse();
+    }
+
+    @Test
+    void testGetIncludesMembersOutsideOfScimRequests() throws Exception {
+        send(HttpRequest.newBuilder(groupUri("excludedAttributes=members")).GET());
+
+        ScimGroup group = scimGroupService.get(groupId);
+
+        assertThat(group.getMembers()).hasSize(GROUP_SIZE);
+    }
+
+    @Test
+    void testFindReturnsTheMembersOfEachGroup() throws Exception {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setStartIndex(1);
+        pageRequest.setCount(10);
+
+        List<ScimGroup> groups = scimGroupService.find(new Filter("displayName eq \"" + groupId + "\""), pageRequest, null).getResources();
+
+        assertThat(groups).hasSize(1);
+        assertThat(groups.get(0).getMembers())
+            .hasSize(GROUP_SIZE)
+            .allSatisfy(member -> assertThat(member.getDisplay()).isEqualTo(member.getValue()));
+        assertThat(groups.get(0).getMembers()).extracting(ResourceReference::getValue).containsExactlyInAnyOrderElementsOf(memberIds);
+    }
+
+    @Test
+    void testCreateLinksTheMembersFoundInEveryChunk() throws Exception {
+        List<ResourceReference> members = new ArrayList<>();
+        memberIds.subList(0, 1000).forEach(id -> members.add(new ResourceReference().setValue(id)));
+        members.add(new ResourceReference().setValue(prefix + "-unknown"));
+        ScimGroup group = new ScimGroup();
+        group.setDisplayName(createdGroupId);
+        group.setMembers(members);
+
+        scimGroupService.create(group);
+
+        assertThat(storedMemberIds(createdGroupId)).containsExactlyInAnyOrderElementsOf(memberIds.subList(0, 1000));
+    }
+}
@@ -0,0 +1,258 @@
+package com.okta.developer.security.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.okta.developer.IntegrationTest;
+import com.okta.developer.domain.Authority;
+import com.okta.developer.domain.User;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.directory.scim.spec.exception.ResourceException;
+import org.apache.directory.scim.spec.filter.Filter;
+import org.apache.directory.scim.spec.filter.FilterResponse;
+import org.apache.directory.scim.spec.filter.PageRequest;
+import org.apache.directory.scim.spec.filter.SortRequest;
+import org.apache.directory.scim.spec.filter.attribute.AttributeReference;
+import org.apache.directory.scim.spec.resources.ScimGroup;
+import org.apache.directory.scim.spec.resources.ScimUser;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the SCIM filters translated to Criteria queries by {@link ScimQueryTranslator}.
+ */
+@IntegrationTest
+@Transactional
+class ScimQueryTranslatorIT {
+
+    private static final Instant ALICE_CREATED = Instant.parse("2022-01-10T10:00:00Z");
+    private static final Instant BOB_CREATED = Instant.parse("2022-06-10T10:00:00Z");
+
+    @Autowired
+    private ScimUserService scimUserService;
+
+    @Autowired
+    private ScimGroupService scimGroupService;
+
+    @Autowired
+    private EntityManager em;
+
+    private String prefix;
+
+    @BeforeEach
+    void initTest() {
+        prefix = "scim" + RandomStringUtils.randomAlphabetic(6).toLowerCase();
+        Authority group = new Authority();
+        group.setName("Scim_Group_" + prefix);
+        em.persist(group);
+
+        persistUser(prefix + "-alice", "Alice", "Smith", prefix + "-alice@Example.com", "en", ALICE_CREATED, group);
+        persistUser(prefix + "-bob", "Bob", "Jones", prefix + "-bob@example.com", "fr", BOB_CREATED, null);
+        em.flush();
+        em.clear();
+    }
+
+    private void persistUser(
+        String login,
+        String firstName,
+        String lastName,
+        String email,
+        String langKey,
+        Instant created,
+        Authority group
+    ) {
+        User user = new User();
+        user.setId(login);
+        user.setLogin(login);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        user.setLangKey(langKey);
+        user.setImageUrl("https://example.com/" + login + ".png");
+        user.setActivated(true);
+        if (group != null) {
+            user.getAuthorities().add(group);
+        }
+        em.persist(user);
+        em.flush();
+        // the auditing listener sets the created date on persist
+        em
+            .createNativeQuery("update jhi_user set created_date = ?1, last_modified_date = ?1 where id = ?2")
+            .setParameter(1, created)
+            .setParameter(2, login)
+            .executeUpdate();
+    }
+
+    private List<String> findUserNames(String filter) throws Exception {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setStartIndex(1);
+        pageRequest.setCount(100);
+        String scoped = "userName sw \"" + prefix + "\" and (" + filter + ")";
+        return scimUserService
+            .find(new Filter(scoped), pageRequest, null)
+            .getResources()
+            .stream()
+            .map(ScimUser::getUserName)
+            .map(userName -> userName.substring(prefix.length() + 1))
+            .sorted()
+            .toList();
+    }
+
+    @Test
+    void testEqualsIgnoresCaseOfCaseInsensitiveAttributes() throws Exception {
+        assertThat(findUserNames("userName eq \"" + prefix.toUpperCase() + "-ALICE\"")).containsExactly("alice");
+        assertThat(findUserNames("emails eq \"" + prefix + "-alice@example.com\"")).containsExactly("alice");
+        assertThat(findUserNames("emails.value eq \"" + prefix.toUpperCase() + "-BOB@EXAMPLE.COM\"")).containsExactly("bob");
+        assertThat(findUserNames("name.givenName eq \"alice\"")).containsExactly("alice");
+        assertThat(findUserNames("name.familyName eq \"JONES\"")).containsExactly("bob");
+        assertThat(findUserNames("locale eq \"FR\"")).containsExactly("bob");
+    }
+
+    @Test
+    void testNotEqualsIgnoresCaseOfCaseInsensitiveAttributes() throws Exception {
+        assertThat(findUserNames("userName ne \"" + prefix.toUpperCase() + "-ALICE\"")).containsExactly("bob");
+        assertThat(findUserNames("name.givenName ne \"BOB\"")).containsExactly("alice");
+    }
+
+    @Test
+    void testEqualsOnCaseExactAttributes() throws Exception {
+        assertThat(findUserNames("id eq \"" + prefix + "-bob\"")).containsExactly("bob");
+        assertThat(findUserNames("externalId eq \"" + prefix + "-BOB\"")).isEmpty();
+        assertThat(findUserNames("active eq true")).containsExactly("alice", "bob");
+        assertThat(findUserNames("groups eq \"Scim_Group_" + prefix + "\"")).containsExactly("alice");
+        assertThat(findUserNames("groups.value eq \"Scim_Group_" + prefix + "\"")).containsExactly("alice");
+        assertThat(findUserNames("profileUrl eq \"https://example.com/" + prefix + "-bob.png\"")).containsExactly("bob");
+    }
+
+    @Test
+    void testContainsStartsWithAndEndsWith() throws Exception {
+        assertThat(findUserNames("name.familyName co \"MIT\"")).containsExactly("alice");
+        assertThat(findUserNames("emails sw \"" + prefix + "-B\"")).containsExactly("bob");
+        assertThat(findUserNames("emails ew \"@EXAMPLE.COM\"")).containsExactly("alice", "bob");
+        assertThat(findUserNames("userName co \"%\"")).isEmpty();
+    }
+
+    @Test
+    void testPresent() throws Exception {
+        assertThat(findUserNames("emails pr")).containsExactly("alice", "bob");
+    }
+
+    @Test
+    void testComparesCreatedDateWithStringDate() throws Exception {
+        assertThat(findUserNames("meta.created gt \"2022-03-01T00:00:00Z\"")).containsExactly("bob");
+        assertThat(findUserNames("meta.created lt \"2022-03-01T00:00:00Z\"")).containsExactly("alice");
+        assertThat(findUserNames("meta.created ge \"2022-06-10T10:00:00Z\"")).containsExactly("bob");
+        assertThat(findUserNames("meta.created le \"2022-01-10T10:00:00Z\"")).containsExactly("alice");
+        assertThat(findUserNames("meta.lastModified gt \"2022-01-01T00:00:00Z\"")).containsExactly("alice", "bob");
+    }
+
+    @Test
+    void testLogicalAndGroupExpressions() throws Exception {
+        assertThat(findUserNames("name.givenName eq \"alice\" or locale eq \"fr\"")).containsExactly("alice", "bob");
+        assertThat(findUserNames("not (locale eq \"fr\")")).containsExactly("alice");
+    }
+
+    @Test
+    void testMultiValuedAttributeKeepsUsersWithoutValues() throws Exception {
+        String group = "groups eq \"Scim_Group_" + prefix + "\"";
+        assertThat(findUserNames(group + " or locale eq \"fr\"")).containsExactly("alice", "bob");
+        assertThat(findUserNames("not (" + group + ")")).containsExactly("bob");
+        assertThat(findUserNames(group + " and groups.value eq \"Scim_Group_" + prefix + "\"")).containsExactly("alice");
+        assertThat(findUserNames("groups pr")).containsExactly("alice");
+    }
+
+    @Test
+    void testRejectsSortOnMultiValuedAttribute() {
+        SortRequest sortRequest = new SortRequest();
+        sortRequest.setSortBy(new AttributeReference("groups"));
+
+        assertThatThrownBy(() -> scimUserService.find(new Filter("userName sw \"" + prefix + "\""), new PageRequest(), sortRequest))
+            .isInstanceOf(ResourceException.class)
+            .hasMessageContaining("multi-valued attribute");
+    }
+
+    @Test
+    void testRejectsUnsupportedAttributeAndInvalidDate() {
+        assertThatThrownBy(() -> findUserNames("nickName eq \"x\""))
+            .isInstanceOf(ResourceException.class)
+            .hasMessageContaining("Unsupported attribute");
+        assertThatThrownBy(() -> findUserNames("meta.created gt \"yesterday\""))
+            .isInstanceOf(ResourceException.class)
+            .hasMessageContaining("Invalid date");
+    }
+
+    @Test
+    void testFindFetchesGroupsWithThePage() throws Exception {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setStartIndex(1);
+        pageRequest.setCount(100);
+        scimUserService.find(new Filter("userName sw \"" + prefix + "\""), pageRequest, null);
+
+        User alice = em.find(User.class, prefix + "-alice");
+        assertThat(Hibernate.isInitialized(alice.getAuthorities())).isTrue();
+        assertThat(alice.getAuthorities()).extracting(Authority::getName).containsExactly("Scim_Group_" + prefix);
+    }
+
+    @Test
+    void testGroupDisplayNameEqualsIgnoresCase() throws Exception {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setStartIndex(1);
+        pageRequest.setCount(100);
+        Set<String> names = Set.copyOf(
+            scimGroupService
+                .find(new Filter("displayName eq \"scim_group_" + prefix.toUpperCase() + "\""), pageRequest, null)
+                .getResources()
+                .stream()
+                .map(ScimGroup::getDisplayName)
+                .toList()
+        );
+        assertThat(names).containsExactly("Scim_Group_" + prefix);
+    }
+
+    @Test
+    void testTotalResultsCountsTheUsersOfEveryPage() throws Exception {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setStartIndex(1);
+        pageRequest.setCount(1);
+
+        FilterResponse<ScimUser> response = scimUserService.find(new Filter("userName sw \"" + prefix + "\""), pageRequest, null);
+
+        assertThat(response.getResources()).hasSize(1);
+        assertThat(response.getTotalResults()).isEqualTo(2);
+    }
+
+    @Test
+    void testTotalResultsOfAPartialLastPage() throws Exception {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setStartIndex(2);
+        pageRequest.setCount(100);
+
+        FilterResponse<ScimUser> response = scimUserService.find(new Filter("userName sw \"" + prefix + "\""), pageRequest, null);
+
+        assertThat(response.getResources()).hasSize(1);
+        assertThat(response.getTotalResults()).isEqualTo(2);
+    }
+
+    @Test
+    void testTotalResultsCountsTheMatchingGroups() throws Exception {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setStartIndex(1);
+        pageRequest.setCount(0);
+
+        FilterResponse<ScimGroup> response = scimGroupService.find(
+            new Filter("displayName eq \"Scim_Group_" + prefix + "\""),
+            pageRequest,
+            null
+        );
+
+        assertThat(response.getResources()).isEmpty();
+        assertThat(response.getTotalResults()).isEqualTo(1);
+    }
+}
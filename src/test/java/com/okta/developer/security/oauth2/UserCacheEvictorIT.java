@@ -0,0 +1,156 @@
+package com.okta.developer.security.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.okta.developer.IntegrationTest;
+import com.okta.developer.cache.CacheInvalidationBus;
+import com.okta.developer.domain.User;
+import com.okta.developer.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the evictions of the {@link UserCacheEvictor} from the Hibernate regions, after a SCIM write
+ * on this node and after a write on another node read from the {@code cache_invalidation} table. The second-level
+ * cache, disabled by the test profiles, is enabled for them.
+ */
+@IntegrationTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(
+    properties = { "application.cache.mode=invalidation", "spring.jpa.properties.hibernate.cache.use_second_level_cache=true" }
+)
+class UserCacheEvictorIT {
+
+    private static final String USER_AUTHORITIES_REGION = User.class.getName() + ".authorities";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private String userId;
+
+    private String groupId;
+
+    @BeforeEach
+    void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        userId = "evictor-" + RandomStringUtils.randomAlphabetic(6).toLowerCase();
+        groupId = "ROLE_" + userId.toUpperCase().replace('-', '_');
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("insert into jhi_authority (name) values (?)", groupId);
+            jdbcTemplate.update(
+                "insert into jhi_user (id, login, activated, created_by, created_date) values (?, ?, true, 'test', ?)",
+                userId,
+                userId,
+                Timestamp.from(Instant.now())
+            );
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from jhi_user_authority where user_id = ?", userId);
+            jdbcTemplate.update("delete from jhi_authority where name = ?", groupId);
+            jdbcTemplate.update("delete from jhi_user where id = ?", userId);
+            jdbcTemplate.update("delete from cache_invalidation where cache_key = ?", userId);
+        });
+    }
+
+    private Cache regions() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    /**
+     * Loads the user and its authorities, so they are put in the second-level cache.
+     */
+    private void loadUser() {
+        transactionTemplate.executeWithoutResult(status -> userRepository.findById(userId).orElseThrow().getAuthorities().size());
+        assertThat(regions().containsEntity(User.class, userId)).isTrue();
+        assertThat(regions().containsCollection(USER_AUTHORITIES_REGION, userId)).isTrue();
+    }
+
+    @Test
+    void testGroupPatchEvictsTheAuthoritiesOfItsMembers() throws Exception {
+        loadUser();
+        ObjectNode patch = mapper.createObjectNode();
+        patch.putArray("schemas").add("urn:ietf:params:scim:api:messages:2.0:PatchOp");
+        ObjectNode add = patch.putArray("Operations").addObject();
+        add.put("op", "add").put("path", "members").putArray("value").addObject().put("value", userId);
+
+        HttpResponse<String> response = httpClient.send(
+            HttpRequest
+                .newBuilder(URI.create("http://localhost:" + port + "/scim/Groups/" + groupId))
+                .header("Accept", "application/scim+json")
+                .header("Content-Type", "application/scim+json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(patch.toString()))
+                .build(),
+            HttpResponse.BodyHandlers.ofString()
+        );
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        // the native insert only invalidates the regions mapped to jhi_user_authority, the user entity is evicted by the evictor
+        assertThat(regions().containsEntity(User.class, userId)).isFalse();
+        assertThat(regions().containsCollection(USER_AUTHORITIES_REGION, userId)).isFalse();
+        transactionTemplate.executeWithoutResult(status ->
+            assertThat(userRepository.findById(userId).orElseThrow().getAuthorities()).extracting("name").containsExactly(groupId)
+        );
+    }
+
+    @Test
+    void testPollEvictsTheHibernateRegionsNamedByAnotherNode() {
+        loadUser();
+        transactionTemplate.executeWithoutResult(status -> {
+            String insert = "insert into cache_invalidation (node_id, cache_name, cache_key, created_date) values (?, ?, ?, ?)";
+            LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+            jdbcTemplate.update(insert, "another-node", User.class.getName(), userId, now);
+            jdbcTemplate.update(insert, "another-node", USER_AUTHORITIES_REGION, userId, now);
+        });
+
+        cacheInvalidationBus.poll();
+
+        assertThat(regions().containsEntity(User.class, userId)).isFalse();
+        assertThat(regions().containsCollection(USER_AUTHORITIES_REGION, userId)).isFalse();
+    }
+}
@@ -0,0 +1,94 @@
+package com.okta.developer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.okta.developer.IntegrationTest;
+import com.okta.developer.config.CacheWarmUpHealthIndicator;
+import com.okta.developer.domain.Authority;
+import com.okta.developer.repository.UserRepository;
+import com.okta.developer.security.AuthoritiesConstants;
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.Instant;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link CacheWarmUpService}, run on the synchronous task executor of the tests. The
+ * second-level cache, disabled by the test profiles, is enabled for them.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+class CacheWarmUpServiceIT {
+
+    @Autowired
+    private CacheWarmUpService cacheWarmUpService;
+
+    @Autowired
+    private CacheWarmUpHealthIndicator cacheWarmUpHealthIndicator;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private String login;
+
+    private Cache usersByLogin;
+
+    @BeforeEach
+    void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        login = "warmup-" + RandomStringUtils.randomAlphabetic(8).toLowerCase();
+        usersByLogin = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.update(
+                "insert into jhi_user (id, login, activated, created_by, created_date, last_modified_date) " +
+                "values (?, ?, true, 'test', ?, ?)",
+                login,
+                login,
+                Timestamp.from(Instant.now()),
+                Timestamp.from(Instant.now())
+            )
+        );
+    }
+
+    @AfterEach
+    void cleanUp() {
+        usersByLogin.evict(login);
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("delete from jhi_user where id = ?", login));
+    }
+
+    @Test
+    void testWarmUpFillsTheUserAndAuthorityCaches() {
+        org.hibernate.Cache regions = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        regions.evictEntityData(Authority.class);
+
+        cacheWarmUpService.warmUp();
+
+        assertThat(cacheWarmUpService.isComplete()).isTrue();
+        assertThat(cacheWarmUpHealthIndicator.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(usersByLogin.get(login)).isNotNull();
+        assertThat(regions.containsEntity(Authority.class, AuthoritiesConstants.USER)).isTrue();
+    }
+}
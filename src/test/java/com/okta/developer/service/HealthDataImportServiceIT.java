@@ -0,0 +1,94 @@
+package com.okta.developer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.okta.developer.IntegrationTest;
+import com.okta.developer.domain.User;
+import com.okta.developer.repository.UserRepository;
+import com.okta.developer.service.dto.ImportResultDTO;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link HealthDataImportService}.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.health-data-import.chunk-size=3")
+class HealthDataImportServiceIT {
+
+    private static final String CONSTRAINT = "chk_weight_import_it";
+
+    @Autowired
+    private HealthDataImportService healthDataImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private String userId;
+
+    private String login;
+
+    @BeforeEach
+    void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        userId = UUID.randomUUID().toString();
+        login = "import-" + userId.substring(0, 8);
+        User user = new User();
+        user.setId(userId);
+        user.setLogin(login);
+        user.setActivated(true);
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.saveAndFlush(user);
+            // a failure the validation of the rows doesn't catch
+            jdbcTemplate.execute("alter table weight add constraint " + CONSTRAINT + " check (weight < 1000)");
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("alter table weight drop constraint " + CONSTRAINT);
+            jdbcTemplate.update("delete from weight where user_id = ?", userId);
+            jdbcTemplate.update("delete from jhi_user where id = ?", userId);
+        });
+    }
+
+    @Test
+    void testDatabaseFailureInAChunkOnlyRejectsTheFailingRow() throws Exception {
+        String ndjson = """
+            {"type":"weights","timestamp":"2022-10-03T08:00:00Z","weight":70.5}
+            {"type":"weights","timestamp":"2022-10-04T08:00:00Z","weight":7050}
+            {"type":"weights","timestamp":"2022-10-05T08:00:00Z","weight":70.1}
+            {"type":"weights","timestamp":"2022-10-06T08:00:00Z","weight":69.8}
+            """;
+
+        ImportResultDTO result = healthDataImportService.importNdjson(
+            login,
+            null,
+            new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))
+        );
+
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(ImportResultDTO.RowError::line).containsExactly(2L);
+        assertThat(jdbcTemplate.queryForList("select weight from weight where user_id = ? order by weight", Double.class, userId))
+            .containsExactly(69.8, 70.1, 70.5);
+    }
+}
@@ -0,0 +1,141 @@
+package com.okta.developer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.okta.developer.IntegrationTest;
+import com.okta.developer.domain.Points;
+import com.okta.developer.domain.User;
+import com.okta.developer.repository.PointsRepository;
+import com.okta.developer.repository.UserRepository;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link PointsRollupService}.
+ */
+@IntegrationTest
+class PointsRollupServiceIT {
+
+    private static final LocalDate WEEK = PointsRollupService.weekOf(LocalDate.now());
+
+    @Autowired
+    private PointsRollupService pointsRollupService;
+
+    @Autowired
+    private PointsRepository pointsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private String userId;
+
+    @BeforeEach
+    void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        userId = UUID.randomUUID().toString();
+        User user = new User();
+        user.setId(userId);
+        user.setLogin("rollup-" + userId.substring(0, 8));
+        user.setActivated(true);
+        transactionTemplate.executeWithoutResult(status -> userRepository.saveAndFlush(user));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from points where user_id = ?", userId);
+            jdbcTemplate.update("delete from points_weekly_total where user_id = ?", userId);
+            jdbcTemplate.update("delete from jhi_user where id = ?", userId);
+        });
+    }
+
+    private Points newPoints(LocalDate date, int exercise) {
+        return new Points().date(date).exercise(exercise).meals(1).alcohol(0).user(userRepository.getReferenceById(userId));
+    }
+
+    private Map<String, Object> weeklyTotal(LocalDate week) {
+        List<Map<String, Object>> totals = jdbcTemplate.queryForList(
+            "select entries, exercise, meals from points_weekly_total where user_id = ? and week = ?",
+            userId,
+            week
+        );
+        return totals.isEmpty() ? null : totals.get(0);
+    }
+
+    @Test
+    void testConcurrentWritesToTheSameWeek() throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> writes = List.of(WEEK, WEEK.plusDays(1))
+                .stream()
+                .<Future<?>>map(date ->
+                    executor.submit(() ->
+                        transactionTemplate.executeWithoutResult(status -> {
+                            Points points = pointsRepository.saveAndFlush(newPoints(date, 1));
+                            try {
+                                // both points are written before either total is recomputed
+                                barrier.await(10, TimeUnit.SECONDS);
+                            } catch (Exception e) {
+                                throw new IllegalStateException(e);
+                            }
+                            pointsRollupService.onPointsChanged(null, points);
+                        })
+                    )
+                )
+                .toList();
+            for (Future<?> write : writes) {
+                write.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Object> total = weeklyTotal(WEEK);
+        assertThat(((Number) total.get("entries")).longValue()).isEqualTo(2);
+        assertThat(((Number) total.get("exercise")).longValue()).isEqualTo(2);
+    }
+
+    @Test
+    void testReconcileRecomputesStaleAndEmptyTotals() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Points points = pointsRepository.saveAndFlush(newPoints(WEEK, 3));
+            pointsRollupService.onPointsChanged(null, points);
+            jdbcTemplate.update("update points_weekly_total set entries = 99 where user_id = ?", userId);
+            jdbcTemplate.update(
+                "insert into points_weekly_total (user_id, week, entries, exercise, meals, alcohol) values (?, ?, 1, 1, 1, 1)",
+                userId,
+                WEEK.minusWeeks(1)
+            );
+        });
+
+        transactionTemplate.executeWithoutResult(status -> pointsRollupService.reconcile());
+
+        Map<String, Object> total = weeklyTotal(WEEK);
+        assertThat(((Number) total.get("entries")).longValue()).isEqualTo(1);
+        assertThat(((Number) total.get("exercise")).longValue()).isEqualTo(3);
+        assertThat(weeklyTotal(WEEK.minusWeeks(1))).isNull();
+    }
+}
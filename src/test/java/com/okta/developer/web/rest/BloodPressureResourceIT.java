@@ -2,6 +2,7 @@ package com.okta.developer.web.rest;
 
 import static com.okta.developer.web.rest.TestUtil.sameInstant;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -27,9 +28,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -218,6 +220,23 @@ class BloodPressureResourceIT {
         assertThat(bloodPressureList).hasSize(databaseSizeBeforeTest);
     }
 
+    @Test
+    @Transactional
+    void getAllBloodPressuresAsSlice() throws Exception {
+        // Initialize the database
+        bloodPressureRepository.saveAndFlush(bloodPressure);
+        bloodPressureRepository.saveAndFlush(createEntity(em));
+
+        // Get the first page, without a total count
+        restBloodPressureMockMvc
+            .perform(get(ENTITY_API_URL + "?page=0&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("page=1&size=1>; rel=\"next\"")))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("page=0&size=1>; rel=\"first\"")));
+    }
+
     @Test
     @Transactional
     void getAllBloodPressures() throws Exception {
@@ -237,19 +256,19 @@ class BloodPressureResourceIT {
 
     @SuppressWarnings({ "unchecked" })
     void getAllBloodPressuresWithEagerRelationshipsIsEnabled() throws Exception {
-        when(bloodPressureRepositoryMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
+        when(bloodPressureRepositoryMock.findSliceWithEagerRelationships(any())).thenReturn(new SliceImpl(new ArrayList<>()));
 
         restBloodPressureMockMvc.perform(get(ENTITY_API_URL + "?eagerload=true")).andExpect(status().isOk());
 
-        verify(bloodPressureRepositoryMock, times(1)).findAllWithEagerRelationships(any());
+        verify(bloodPressureRepositoryMock, times(1)).findSliceWithEagerRelationships(any());
     }
 
     @SuppressWarnings({ "unchecked" })
     void getAllBloodPressuresWithEagerRelationshipsIsNotEnabled() throws Exception {
-        when(bloodPressureRepositoryMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
+        when(bloodPressureRepositoryMock.findSliceWithEagerRelationships(any())).thenReturn(new SliceImpl(new ArrayList<>()));
 
         restBloodPressureMockMvc.perform(get(ENTITY_API_URL + "?eagerload=false")).andExpect(status().isOk());
-        verify(bloodPressureRepositoryMock, times(1)).findAll(any(Pageable.class));
+        verify(bloodPressureRepositoryMock, times(1)).findSliceBy(any(Pageable.class));
     }
 
     @Test
@@ -441,7 +460,7 @@ class BloodPressureResourceIT {
         int databaseSizeBeforeUpdate = bloodPressureRepository.findAll().size();
         bloodPressure.setId(count.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, it will return 404
         restBloodPressureMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, bloodPressure.getId())
@@ -449,7 +468,7 @@ class BloodPressureResourceIT {
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(bloodPressure))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the BloodPressure in the database
         List<BloodPressure> bloodPressureList = bloodPressureRepository.findAll();
@@ -0,0 +1,123 @@
+package com.okta.developer.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.okta.developer.IntegrationTest;
+import com.okta.developer.domain.Points;
+import com.okta.developer.domain.User;
+import com.okta.developer.domain.Weight;
+import com.okta.developer.repository.PointsRepository;
+import com.okta.developer.repository.UserRepository;
+import com.okta.developer.repository.WeightRepository;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration tests for the {@link ExportResource} REST controller.
+ * <p>
+ * The exports are streamed from another thread, in their own transaction, so the test data is committed.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ExportResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/export";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PointsRepository pointsRepository;
+
+    @Autowired
+    private WeightRepository weightRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restExportMockMvc;
+
+    private User user;
+
+    private Points points;
+
+    private Weight weight;
+
+    @BeforeEach
+    public void initTest() {
+        user = UserResourceIT.createEntity(em);
+        user.setLogin("user");
+        user = userRepository.saveAndFlush(user);
+        points = pointsRepository.saveAndFlush(
+            new Points().date(LocalDate.of(2022, 10, 3)).exercise(1).meals(0).alcohol(1).notes("walk; no snacks").user(user)
+        );
+        weight = weightRepository.saveAndFlush(
+            new Weight().timestamp(ZonedDateTime.of(2022, 10, 3, 8, 0, 0, 0, ZoneOffset.UTC)).weight(70.5).user(user)
+        );
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        weightRepository.delete(weight);
+        pointsRepository.delete(points);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void exportNdjson() throws Exception {
+        MvcResult result = restExportMockMvc.perform(get(ENTITY_API_URL)).andExpect(request().asyncStarted()).andReturn();
+
+        restExportMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(ExportResource.APPLICATION_NDJSON))
+            .andExpect(content().string(containsString("{\"type\":\"points\",\"id\":" + points.getId() + ",\"date\":\"2022-10-03\"")))
+            .andExpect(content().string(containsString("{\"type\":\"weights\",\"id\":" + weight.getId() + ",")))
+            .andExpect(content().string(containsString("\"timestamp\":\"2022-10-03T08:00:00Z\",\"weight\":70.5}\n")));
+    }
+
+    @Test
+    void exportCsv() throws Exception {
+        MvcResult result = restExportMockMvc
+            .perform(get(ENTITY_API_URL + "?type=points&format=csv"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        restExportMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("id;date;exercise;meals;alcohol;notes\n")))
+            .andExpect(content().string(containsString(points.getId() + ";2022-10-03;1;0;1;\"walk; no snacks\"\n")))
+            .andExpect(content().string(not(containsString("timestamp"))));
+    }
+
+    @Test
+    void exportUsesTheExportAsyncTimeout() throws Exception {
+        MvcResult result = restExportMockMvc.perform(get(ENTITY_API_URL)).andExpect(request().asyncStarted()).andReturn();
+
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofHours(1).toMillis());
+        restExportMockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+
+    @Test
+    void exportCsvWithoutType() throws Exception {
+        restExportMockMvc.perform(get(ENTITY_API_URL + "?format=csv")).andExpect(status().isBadRequest());
+    }
+}
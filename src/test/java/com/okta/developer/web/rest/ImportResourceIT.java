@@ -0,0 +1,100 @@
+package com.okta.developer.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.okta.developer.IntegrationTest;
+import com.okta.developer.domain.User;
+import com.okta.developer.repository.PointsRepository;
+import com.okta.developer.repository.WeightRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link ImportResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ImportResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/import";
+
+    @Autowired
+    private PointsRepository pointsRepository;
+
+    @Autowired
+    private WeightRepository weightRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restImportMockMvc;
+
+    @BeforeEach
+    public void initTest() {
+        User user = UserResourceIT.createEntity(em);
+        user.setLogin("user");
+        em.persist(user);
+    }
+
+    @Test
+    @Transactional
+    void importCsv() throws Exception {
+        int databaseSizeBeforeImport = pointsRepository.findAll().size();
+        String csv = """
+            id;date;exercise;meals;alcohol;notes
+            1;2022-09-30;1;1;0;"walk; no snacks"
+            2;not-a-date;1;1;1;
+            3;2022-10-01;0;1;1;
+            """;
+
+        restImportMockMvc
+            .perform(post(ENTITY_API_URL + "?type=points&format=csv").with(csrf()).contentType("text/csv").content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.rejected").value(1))
+            .andExpect(jsonPath("$.errors.[0].line").value(3));
+
+        assertThat(pointsRepository.findAll()).hasSize(databaseSizeBeforeImport + 2);
+    }
+
+    @Test
+    @Transactional
+    void importNdjson() throws Exception {
+        int databaseSizeBeforeImport = weightRepository.findAll().size();
+        String ndjson = """
+            {"type":"weights","timestamp":"2022-10-03T08:00:00Z","weight":70.5}
+            {"type":"weights","timestamp":"2022-10-04T08:00:00Z"}
+            {"type":"weights","timestamp":"2022-10-05T08:00:00","weight":70.1}
+            """;
+
+        restImportMockMvc
+            .perform(post(ENTITY_API_URL).with(csrf()).contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.rejected").value(1))
+            .andExpect(jsonPath("$.errors.[0].line").value(2))
+            .andExpect(jsonPath("$.errors.[0].message").value("weight must not be null"));
+
+        assertThat(weightRepository.findAll()).hasSize(databaseSizeBeforeImport + 2);
+    }
+
+    @Test
+    @Transactional
+    void importCsvWithoutType() throws Exception {
+        restImportMockMvc
+            .perform(post(ENTITY_API_URL + "?format=csv").with(csrf()).contentType("text/csv").content("id;date\n"))
+            .andExpect(status().isBadRequest());
+    }
+}
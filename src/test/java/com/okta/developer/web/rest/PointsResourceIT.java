@@ -2,6 +2,7 @@ package com.okta.developer.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -9,7 +10,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.okta.developer.IntegrationTest;
 import com.okta.developer.domain.Points;
+import com.okta.developer.domain.User;
 import com.okta.developer.repository.PointsRepository;
+import com.okta.developer.repository.UserRepository;
 import jakarta.persistence.EntityManager;
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -24,6 +27,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -74,6 +78,9 @@ class PointsResourceIT {
     @Autowired
     private MockMvc restPointsMockMvc;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     private Points points;
 
     /**
@@ -193,6 +200,122 @@ class PointsResourceIT {
             .andExpect(jsonPath("$.[*].notes").value(hasItem(DEFAULT_NOTES)));
     }
 
+    @Test
+    @Transactional
+    void getAllPointsOfCurrentUserByDateRange() throws Exception {
+        // Initialize the database
+        User user = UserResourceIT.createEntity(em);
+        user.setLogin("user");
+        em.persist(user);
+        pointsRepository.saveAndFlush(points.user(user));
+        Points otherDay = pointsRepository.saveAndFlush(createEntity(em).date(DEFAULT_DATE.plusDays(10)).user(user));
+        User otherUser = UserResourceIT.createEntity(em);
+        em.persist(otherUser);
+        Points otherUserPoints = pointsRepository.saveAndFlush(createEntity(em).user(otherUser));
+
+        // Get the points of the current user in the date range
+        restPointsMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&from={from}&to={to}", DEFAULT_DATE, DEFAULT_DATE.plusDays(1)))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(points.getId().intValue())))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(otherDay.getId().intValue()))))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(otherUserPoints.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    void getAllPointsOfCurrentUserUpToDate() throws Exception {
+        // Initialize the database
+        User user = UserResourceIT.createEntity(em);
+        user.setLogin("user");
+        em.persist(user);
+        pointsRepository.saveAndFlush(points.user(user));
+        Points otherDay = pointsRepository.saveAndFlush(createEntity(em).date(DEFAULT_DATE.plusDays(10)).user(user));
+
+        // Get the points of the current user up to a date, without a lower bound
+        restPointsMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&to={to}", DEFAULT_DATE.plusDays(1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(points.getId().intValue())))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(otherDay.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    void getAllPointsWithFromAfterTo() throws Exception {
+        restPointsMockMvc
+            .perform(get(ENTITY_API_URL + "?from={from}&to={to}", DEFAULT_DATE.plusDays(1), DEFAULT_DATE))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getPointsByWeek() throws Exception {
+        // Initialize the database
+        User user = UserResourceIT.createEntity(em);
+        user.setLogin("user");
+        em.persist(user);
+        // Create the Points, the weekly totals are updated on write
+        for (Points entry : List.of(points.user(user), createEntity(em).user(user))) {
+            restPointsMockMvc
+                .perform(
+                    post(ENTITY_API_URL)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(entry))
+                )
+                .andExpect(status().isCreated());
+        }
+
+        // Get the weekly totals of the current user
+        restPointsMockMvc
+            .perform(get("/api/points-by-week?from={from}&to={to}", DEFAULT_DATE, DEFAULT_DATE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].entries").value(2))
+            .andExpect(jsonPath("$.[0].exercise").value(2 * DEFAULT_EXERCISE))
+            .andExpect(jsonPath("$.[0].total").value(2 * (DEFAULT_EXERCISE + DEFAULT_MEALS + DEFAULT_ALCOHOL)));
+    }
+
+    @Test
+    @Transactional
+    void getPointsThisWeek() throws Exception {
+        // Initialize the database, the current user is looked up by login
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+        User user = UserResourceIT.createEntity(em);
+        user.setLogin("user");
+        em.persist(user);
+        restPointsMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(points.date(LocalDate.now()).user(user)))
+            )
+            .andExpect(status().isCreated());
+
+        // Get the points of this week, they are cached
+        restPointsMockMvc
+            .perform(get("/api/points-this-week"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].exercise").value(DEFAULT_EXERCISE));
+
+        // Adding points evicts the cached week
+        restPointsMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(createEntity(em).date(LocalDate.now()).user(user)))
+            )
+            .andExpect(status().isCreated());
+        restPointsMockMvc.perform(get("/api/points-this-week")).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(2));
+    }
+
     @SuppressWarnings({ "unchecked" })
     void getAllPointsWithEagerRelationshipsIsEnabled() throws Exception {
         when(pointsRepositoryMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
@@ -409,7 +532,7 @@ class PointsResourceIT {
         int databaseSizeBeforeUpdate = pointsRepository.findAll().size();
         points.setId(count.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, it will return 404
         restPointsMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, points.getId())
@@ -417,7 +540,7 @@ class PointsResourceIT {
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(points))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the Points in the database
         List<Points> pointsList = pointsRepository.findAll();
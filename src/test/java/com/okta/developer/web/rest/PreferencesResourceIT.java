@@ -400,7 +400,7 @@ class PreferencesResourceIT {
         int databaseSizeBeforeUpdate = preferencesRepository.findAll().size();
         preferences.setId(count.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, it will return 404
         restPreferencesMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, preferences.getId())
@@ -408,7 +408,7 @@ class PreferencesResourceIT {
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(preferences))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the Preferences in the database
         List<Preferences> preferencesList = preferencesRepository.findAll();
@@ -2,6 +2,7 @@ package com.okta.developer.web.rest;
 
 import static com.okta.developer.web.rest.TestUtil.sameInstant;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -27,9 +28,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -190,21 +192,47 @@ class WeightResourceIT {
             .andExpect(jsonPath("$.[*].weight").value(hasItem(DEFAULT_WEIGHT.doubleValue())));
     }
 
+    @Test
+    @Transactional
+    void getAllWeightsAfterCursor() throws Exception {
+        // Initialize the database, newer than any other weight
+        ZonedDateTime timestamp = UPDATED_TIMESTAMP.plusYears(100);
+        Weight older = weightRepository.saveAndFlush(weight.timestamp(timestamp));
+        Weight newer = weightRepository.saveAndFlush(createEntity(em).timestamp(timestamp.plusDays(1)));
+
+        // Get the first page, with a link to the next one
+        restWeightMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(newer.getId().intValue()))
+            .andExpect(
+                header().string(HttpHeaders.LINK, containsString("after=" + newer.getTimestamp().toInstant() + "%2C" + newer.getId()))
+            );
+
+        // Get the next page
+        restWeightMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}&size=1", newer.getTimestamp().toInstant() + "," + newer.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(older.getId().intValue()));
+    }
+
     @SuppressWarnings({ "unchecked" })
     void getAllWeightsWithEagerRelationshipsIsEnabled() throws Exception {
-        when(weightRepositoryMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
+        when(weightRepositoryMock.findSliceWithEagerRelationships(any())).thenReturn(new SliceImpl(new ArrayList<>()));
 
         restWeightMockMvc.perform(get(ENTITY_API_URL + "?eagerload=true")).andExpect(status().isOk());
 
-        verify(weightRepositoryMock, times(1)).findAllWithEagerRelationships(any());
+        verify(weightRepositoryMock, times(1)).findSliceWithEagerRelationships(any());
     }
 
     @SuppressWarnings({ "unchecked" })
     void getAllWeightsWithEagerRelationshipsIsNotEnabled() throws Exception {
-        when(weightRepositoryMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
+        when(weightRepositoryMock.findSliceWithEagerRelationships(any())).thenReturn(new SliceImpl(new ArrayList<>()));
 
         restWeightMockMvc.perform(get(ENTITY_API_URL + "?eagerload=false")).andExpect(status().isOk());
-        verify(weightRepositoryMock, times(1)).findAll(any(Pageable.class));
+        verify(weightRepositoryMock, times(1)).findSliceBy(any(Pageable.class));
     }
 
     @Test
@@ -389,7 +417,7 @@ class WeightResourceIT {
         int databaseSizeBeforeUpdate = weightRepository.findAll().size();
         weight.setId(count.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, it will return 404
         restWeightMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, weight.getId())
@@ -397,7 +425,7 @@ class WeightResourceIT {
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(weight))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the Weight in the database
         List<Weight> weightList = weightRepository.findAll();